@@ -0,0 +1,73 @@
+package com.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files written with {@code -rf json} and exits with status 1 when any benchmark
+ * lost more than the allowed share of throughput or allocates more bytes per operation
+ * (the latter only when both runs used {@code -prof gc}).
+ *
+ * <pre>java -cp target/benchmarks.jar com.example.benchmarks.BenchmarkComparison baseline.json current.json [tolerance-percent]</pre>
+ */
+public class BenchmarkComparison {
+
+  private static final String ALLOCATION_METRIC = "\u00b7gc.alloc.rate.norm";
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("usage: BenchmarkComparison <baseline.json> <current.json> [tolerance-percent]");
+      System.exit(2);
+    }
+    double tolerance = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+    Map<String, JsonNode> baseline = read(new File(args[0]));
+    Map<String, JsonNode> current = read(new File(args[1]));
+
+    int regressions = 0;
+    for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+      JsonNode before = baseline.get(entry.getKey());
+      if (before == null) {
+        System.out.printf("NEW        %s%n", entry.getKey());
+        continue;
+      }
+      JsonNode after = entry.getValue();
+      double scoreBefore = before.at("/primaryMetric/score").asDouble();
+      double scoreAfter = after.at("/primaryMetric/score").asDouble();
+      boolean slower = scoreAfter < scoreBefore * (1 - tolerance);
+
+      JsonNode allocBefore = before.path("secondaryMetrics").path(ALLOCATION_METRIC).path("score");
+      JsonNode allocAfter = after.path("secondaryMetrics").path(ALLOCATION_METRIC).path("score");
+      boolean allocates = !allocBefore.isMissingNode() && !allocAfter.isMissingNode()
+              && allocAfter.asDouble() > allocBefore.asDouble() * (1 + tolerance);
+
+      if (slower || allocates) {
+        regressions++;
+      }
+      System.out.printf("%-10s %s  %.2f -> %.2f %s%s%n",
+              slower || allocates ? "REGRESSED" : "OK",
+              entry.getKey(), scoreBefore, scoreAfter,
+              after.at("/primaryMetric/scoreUnit").asText(),
+              allocAfter.isMissingNode() || allocBefore.isMissingNode() ? ""
+                      : String.format("  alloc %.1f -> %.1f B/op", allocBefore.asDouble(), allocAfter.asDouble()));
+    }
+    System.exit(regressions > 0 ? 1 : 0);
+  }
+
+  //keyed by benchmark name plus its params, so parameterised runs are compared one to one
+  private static Map<String, JsonNode> read(File file) throws IOException {
+    Map<String, JsonNode> results = new LinkedHashMap<>();
+    for (JsonNode result : new ObjectMapper().readTree(file)) {
+      StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+      result.path("params").fields().forEachRemaining(param ->
+              key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+      results.put(key.toString(), result);
+    }
+    return results;
+  }
+
+}
@@ -0,0 +1,81 @@
+package com.example.benchmarks;
+
+import com.example.demo.data.Orders;
+import com.example.demo.data.StatusRequest;
+import com.example.demo.data.StatusResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the demo payloads, using a mapper configured the way Spring Boot builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderJsonBenchmark {
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+  private Orders order;
+  private byte[] orderJson;
+  private StatusRequest statusRequest;
+  private byte[] statusRequestJson;
+  private StatusResponse statusResponse;
+  private byte[] statusResponseJson;
+
+  @Setup
+  public void setup() throws IOException {
+    order = new Orders()
+            .setId(123456L)
+            .setNumber("ORD-2019-000123")
+            .setClient("client")
+            .setPrice(new BigDecimal("1234.56"))
+            .setStatus("not verified")
+            .setCreatedAt(LocalDateTime.of(2019, 10, 1, 12, 30, 15, 123456000));
+    orderJson = objectMapper.writeValueAsBytes(order);
+    statusRequest = new StatusRequest().setClient("client").setPrice(new BigDecimal("1234.56"));
+    statusRequestJson = objectMapper.writeValueAsBytes(statusRequest);
+    statusResponse = new StatusResponse().setStatus("accepted");
+    statusResponseJson = objectMapper.writeValueAsBytes(statusResponse);
+  }
+
+  @Benchmark
+  public byte[] writeOrder() throws IOException {
+    return objectMapper.writeValueAsBytes(order);
+  }
+
+  @Benchmark
+  public Orders readOrder() throws IOException {
+    return objectMapper.readValue(orderJson, Orders.class);
+  }
+
+  @Benchmark
+  public byte[] writeStatusRequest() throws IOException {
+    return objectMapper.writeValueAsBytes(statusRequest);
+  }
+
+  @Benchmark
+  public StatusRequest readStatusRequest() throws IOException {
+    return objectMapper.readValue(statusRequestJson, StatusRequest.class);
+  }
+
+  @Benchmark
+  public byte[] writeStatusResponse() throws IOException {
+    return objectMapper.writeValueAsBytes(statusResponse);
+  }
+
+  @Benchmark
+  public StatusResponse readStatusResponse() throws IOException {
+    return objectMapper.readValue(statusResponseJson, StatusResponse.class);
+  }
+
+}
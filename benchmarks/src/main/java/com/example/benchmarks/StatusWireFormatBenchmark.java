@@ -0,0 +1,88 @@
+package com.example.benchmarks;
+
+import com.example.demo.data.StatusRequest;
+import com.example.demo.data.StatusResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a verification call's payloads in each {@code status.wire-format}, with mappers built the way
+ * Spring's JSON and CBOR message converters build theirs. Run with {@code -prof gc} to compare allocation
+ * too. The encoded sizes do not vary between runs, StatusWireFormatSizeTest in the demo asserts them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatusWireFormatBenchmark {
+
+  //status.batch.max-size
+  private static final int BATCH_SIZE = 50;
+
+  @Param({"json", "cbor"})
+  public String format;
+
+  private ObjectMapper objectMapper;
+  private StatusRequest request;
+  private byte[] requestBytes;
+  private StatusResponse response;
+  private byte[] responseBytes;
+  private List<StatusRequest> batch;
+  private byte[] batchBytes;
+
+  @Setup
+  public void setup() throws IOException {
+    objectMapper = "cbor".equals(format)
+            ? Jackson2ObjectMapperBuilder.cbor().build()
+            : Jackson2ObjectMapperBuilder.json().build();
+    request = new StatusRequest().setClient("client").setPrice(new BigDecimal("1234.56"));
+    requestBytes = objectMapper.writeValueAsBytes(request);
+    response = new StatusResponse().setStatus("accepted");
+    responseBytes = objectMapper.writeValueAsBytes(response);
+    batch = new ArrayList<>();
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      batch.add(new StatusRequest().setClient("client" + i).setPrice(BigDecimal.valueOf(100_00 + i, 2)));
+    }
+    batchBytes = objectMapper.writeValueAsBytes(batch);
+  }
+
+  @Benchmark
+  public byte[] writeRequest() throws IOException {
+    return objectMapper.writeValueAsBytes(request);
+  }
+
+  @Benchmark
+  public StatusRequest readRequest() throws IOException {
+    return objectMapper.readValue(requestBytes, StatusRequest.class);
+  }
+
+  @Benchmark
+  public byte[] writeResponse() throws IOException {
+    return objectMapper.writeValueAsBytes(response);
+  }
+
+  @Benchmark
+  public StatusResponse readResponse() throws IOException {
+    return objectMapper.readValue(responseBytes, StatusResponse.class);
+  }
+
+  @Benchmark
+  public byte[] writeBatch() throws IOException {
+    return objectMapper.writeValueAsBytes(batch);
+  }
+
+  @Benchmark
+  public StatusRequest[] readBatch() throws IOException {
+    return objectMapper.readValue(batchBytes, StatusRequest[].class);
+  }
+
+}
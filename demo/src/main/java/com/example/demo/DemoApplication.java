@@ -9,12 +9,12 @@ import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.math.BigDecimal;
 
 @SpringBootApplication
+@EnableScheduling
 @Slf4j
 public class DemoApplication implements ApplicationRunner {
 
@@ -31,11 +31,6 @@ public class DemoApplication implements ApplicationRunner {
 		SpringApplication.run(DemoApplication.class, args);
 	}
 
-  @Bean
-  public RestTemplate restTemplate() {
-    return new RestTemplate();
-  }
-
 	@Override
 	public void run(ApplicationArguments args) throws Exception {
 //		productsRepository.save(new Products().setCategory("cat1").setName("name1").setPrice(BigDecimal.valueOf(111)));
@@ -0,0 +1,67 @@
+package com.example.demo.configuration;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class HttpClientConfig {
+
+  @Bean(destroyMethod = "shutdown")
+  public PoolingHttpClientConnectionManager connectionManager(@Value("${status.url}") String statusUrl,
+                                                              @Value("${http.client.max-total:100}") int maxTotal,
+                                                              @Value("${http.client.default-max-per-route:20}") int defaultMaxPerRoute,
+                                                              @Value("${status.http.max-per-route:50}") int statusMaxPerRoute,
+                                                              @Value("${http.client.validate-after-inactivity-ms:2000}") int validateAfterInactivity) {
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxTotal);
+    connectionManager.setDefaultMaxPerRoute(defaultMaxPerRoute);
+    connectionManager.setMaxPerRoute(new HttpRoute(statusHost(statusUrl)), statusMaxPerRoute);
+    connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+    return connectionManager;
+  }
+
+  @Bean(destroyMethod = "close")
+  public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+                                        @Value("${http.client.connect-timeout-ms:1000}") int connectTimeout,
+                                        @Value("${http.client.read-timeout-ms:3000}") int readTimeout,
+                                        @Value("${http.client.pool-acquire-timeout-ms:1000}") int poolAcquireTimeout,
+                                        @Value("${http.client.idle-eviction-ms:30000}") long idleEviction) {
+    RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(connectTimeout)
+            .setSocketTimeout(readTimeout)
+            .setConnectionRequestTimeout(poolAcquireTimeout)
+            .build();
+    return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+            .evictExpiredConnections()
+            .evictIdleConnections(idleEviction, TimeUnit.MILLISECONDS)
+            .build();
+  }
+
+  @Bean
+  public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+    return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+  }
+
+  private static HttpHost statusHost(String statusUrl) {
+    URI uri = URI.create(statusUrl);
+    int port = uri.getPort() != -1 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    return new HttpHost(uri.getHost(), port, uri.getScheme());
+  }
+
+}
@@ -0,0 +1,103 @@
+package com.example.demo.configuration;
+
+import com.example.demo.service.CircuitBreaker;
+import com.example.demo.service.OrderCache;
+import com.example.demo.service.OrderEvents;
+import com.example.demo.service.OrderService;
+import com.example.demo.service.StatusCallGuard;
+import com.example.demo.service.StatusClient;
+import com.example.demo.service.StatusWriteBehind;
+import com.example.demo.service.TtlCache;
+import com.example.demo.service.VerificationEngine;
+import com.example.demo.service.VerificationNotifier;
+import com.example.demo.service.VerificationOutboxService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Supplier;
+
+/**
+ * Publishes the stats the services already keep as meters, so they show up next to the
+ * request, verification and repository timers on {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+    return new RepositoryMetricsPostProcessor(meterRegistry);
+  }
+
+  @Bean
+  public MeterBinder verificationMetrics(VerificationEngine engine, VerificationOutboxService outboxService,
+                                        StatusWriteBehind statusWriteBehind) {
+    return registry -> {
+      Gauge.builder("verification.write.buffered", statusWriteBehind, StatusWriteBehind::getBuffered).register(registry);
+      Gauge.builder("verification.queue.depth", engine, VerificationEngine::getQueueDepth).register(registry);
+      Gauge.builder("verification.in.flight", engine, VerificationEngine::getInFlight).register(registry);
+      FunctionCounter.builder("verification.overflow", engine, e -> e.getStats().getRejected())
+              .tag("action", "rejected").register(registry);
+      FunctionCounter.builder("verification.overflow", engine, e -> e.getStats().getShed())
+              .tag("action", "shed").register(registry);
+      //both run a count query on every scrape
+      Gauge.builder("verification.outbox.entries", outboxService, o -> o.getStats().getPending())
+              .tag("state", "pending").register(registry);
+      Gauge.builder("verification.outbox.entries", outboxService, o -> o.getStats().getParked())
+              .tag("state", "parked").register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder orderWriteMetrics(OrderService orderService, VerificationNotifier verificationNotifier,
+                                      OrderEvents orderEvents) {
+    return registry -> {
+      Gauge.builder("order.write.queue.depth", orderService, OrderService::getWriteQueueDepth).register(registry);
+      Gauge.builder("order.verify.waiting", verificationNotifier, VerificationNotifier::getWaiting).register(registry);
+      Gauge.builder("order.events.subscribers", orderEvents, e -> e.getStats().getSubscribers()).register(registry);
+      FunctionCounter.builder("order.events.published", orderEvents, e -> e.getStats().getPublished()).register(registry);
+      FunctionCounter.builder("order.events.dropped", orderEvents, e -> e.getStats().getDropped()).register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder statusCallMetrics(StatusCallGuard guard, PoolingHttpClientConnectionManager connectionManager) {
+    return registry -> {
+      for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+        Gauge.builder("status.circuit.state", guard, g -> g.getStats().getCircuitState() == state ? 1 : 0)
+                .tag("state", state.name().toLowerCase())
+                .register(registry);
+      }
+      FunctionCounter.builder("status.hedged", guard, g -> g.getStats().getHedged()).register(registry);
+      FunctionCounter.builder("status.hedge.wins", guard, g -> g.getStats().getHedgeWins()).register(registry);
+      Gauge.builder("http.client.pool.connections", connectionManager, m -> m.getTotalStats().getLeased())
+              .tag("state", "leased").register(registry);
+      Gauge.builder("http.client.pool.connections", connectionManager, m -> m.getTotalStats().getAvailable())
+              .tag("state", "available").register(registry);
+      Gauge.builder("http.client.pool.pending", connectionManager, m -> m.getTotalStats().getPending()).register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder cacheMetrics(OrderCache orderCache, StatusClient statusClient) {
+    return registry -> {
+      bindCache(registry, "orders", orderCache::getStats);
+      bindCache(registry, "status", statusClient::getCacheStats);
+    };
+  }
+
+  private static void bindCache(MeterRegistry registry, String name, Supplier<TtlCache.Stats> stats) {
+    FunctionCounter.builder("cache.gets", stats, s -> s.get().getHits())
+            .tags("cache", name, "result", "hit").register(registry);
+    FunctionCounter.builder("cache.gets", stats, s -> s.get().getMisses())
+            .tags("cache", name, "result", "miss").register(registry);
+    FunctionCounter.builder("cache.evictions", stats, s -> s.get().getEvictions())
+            .tag("cache", name).register(registry);
+  }
+
+}
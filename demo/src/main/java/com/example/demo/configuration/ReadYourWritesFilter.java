@@ -0,0 +1,110 @@
+package com.example.demo.configuration;
+
+import com.example.demo.repository.ReadRouting;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-your-writes despite replication lag: a write request sets a cookie, and reads of a client
+ * sending it within {@code datasource.replica.read-your-writes-ms} go to the primary. The cookie is
+ * signed, so a client cannot pin its reads to the primary for longer than that.
+ * Every request reads through one {@link ReadRouting.Route}, so all its replica reads hit the same replica.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  static final String COOKIE = "primary-reads-until";
+
+  private static final String HMAC = "HmacSHA256";
+
+  private final long windowMillis;
+  private final SecretKeySpec key;
+
+  /**
+   * @param secret signs the cookie, nodes behind one load balancer need the same
+   */
+  public ReadYourWritesFilter(long windowMillis, byte[] secret) {
+    this.windowMillis = windowMillis;
+    this.key = new SecretKeySpec(secret, HMAC);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+          throws ServletException, IOException {
+    long now = System.currentTimeMillis();
+    if (isWrite(request.getMethod())) {
+      String until = String.valueOf(now + windowMillis);
+      Cookie cookie = new Cookie(COOKIE, until + "." + sign(until));
+      cookie.setPath("/");
+      cookie.setMaxAge((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(windowMillis)));
+      cookie.setHttpOnly(true);
+      response.addCookie(cookie);
+    }
+    boolean previous = ReadRouting.pin(!isWrite(request.getMethod()) && pinnedUntil(request) > now);
+    ReadRouting.Route previousRoute = ReadRouting.bind(new ReadRouting.Route());
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      ReadRouting.bind(previousRoute);
+      ReadRouting.restore(previous);
+    }
+  }
+
+  private static boolean isWrite(String method) {
+    return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method);
+  }
+
+  private long pinnedUntil(HttpServletRequest request) {
+    if (request.getCookies() == null) {
+      return 0;
+    }
+    for (Cookie cookie : request.getCookies()) {
+      if (COOKIE.equals(cookie.getName())) {
+        return verified(cookie.getValue());
+      }
+    }
+    return 0;
+  }
+
+  //0 unless signed by us
+  private long verified(String value) {
+    int dot = value.indexOf('.');
+    if (dot < 0) {
+      return 0;
+    }
+    String until = value.substring(0, dot);
+    byte[] signature = value.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+    if (!MessageDigest.isEqual(signature, sign(until).getBytes(StandardCharsets.US_ASCII))) {
+      return 0;
+    }
+    try {
+      //capped as well, in case the window was shortened since
+      return Math.min(Long.parseLong(until), System.currentTimeMillis() + windowMillis);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private String sign(String value) {
+    try {
+      Mac mac = Mac.getInstance(HMAC);
+      mac.init(key);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(value.getBytes(StandardCharsets.US_ASCII)));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot sign the " + COOKIE + " cookie", e);
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.example.demo.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * With {@code datasource.replica.urls} set, read-only transactions go to those replicas, see
+ * {@link ReplicaRoutingDataSource}. The primary is still configured by {@code spring.datasource.*}
+ * and runs the migrations, replicas use the same credentials.
+ */
+@Configuration
+@ConditionalOnProperty("datasource.replica.urls")
+public class ReplicaRoutingConfig {
+
+  @Bean
+  @FlywayDataSource
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                           DataSourceProperties properties,
+                                                           @Value("${datasource.replica.urls}") List<String> urls,
+                                                           @Value("${datasource.replica.policy:ROUND_ROBIN}") ReplicaRoutingDataSource.Policy policy,
+                                                           @Value("${datasource.replica.pool-size:10}") int poolSize) {
+    List<HikariDataSource> replicas = new ArrayList<>();
+    for (String url : urls) {
+      HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+      replica.setPoolName("replica-" + replicas.size());
+      replica.setMaximumPoolSize(poolSize);
+      replica.setReadOnly(true);
+      replicas.add(replica);
+    }
+    return new ReplicaRoutingDataSource(primaryDataSource, replicas, policy);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+    return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+  }
+
+  @Bean
+  public ReadYourWritesFilter readYourWritesFilter(@Value("${datasource.replica.read-your-writes-ms:5000}") long windowMillis,
+                                                   @Value("${datasource.replica.read-your-writes-secret:}") String secret) {
+    byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+    if (key.length == 0) {
+      //only this node accepts its cookies, reads of a client that moved to another node use the replicas
+      key = new byte[32];
+      new SecureRandom().nextBytes(key);
+    }
+    return new ReadYourWritesFilter(windowMillis, key);
+  }
+
+}
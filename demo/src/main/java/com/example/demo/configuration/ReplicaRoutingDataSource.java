@@ -0,0 +1,96 @@
+package com.example.demo.configuration;
+
+import com.example.demo.repository.ReadRouting;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes read-only transactions to one of the replicas and everything else to the primary.
+ * Within a {@link ReadRouting.Route} every read-only transaction goes to the replica chosen for the first.
+ * The transaction is only known to be read-only once it has started, so this has to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which asks for the
+ * connection on the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+  public enum Policy {
+    ROUND_ROBIN,
+    //fewest connections in use, by the replica's own pool
+    LEAST_CONNECTIONS
+  }
+
+  static final String PRIMARY = "primary";
+
+  private final List<? extends DataSource> replicas;
+  private final Policy policy;
+  private final AtomicInteger next = new AtomicInteger();
+
+  public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Policy policy) {
+    if (replicas.isEmpty()) {
+      throw new IllegalArgumentException("At least one replica is required");
+    }
+    this.replicas = replicas;
+    this.policy = policy;
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      targets.put(i, replicas.get(i));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadRouting.isPinnedToPrimary()) {
+      return PRIMARY;
+    }
+    ReadRouting.Route route = ReadRouting.currentRoute();
+    return route == null ? chooseReplica() : route.replica(this::chooseReplica);
+  }
+
+  private Object chooseReplica() {
+    //rotating the start spreads ties of LEAST_CONNECTIONS as well
+    int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+    if (policy == Policy.ROUND_ROBIN) {
+      return start;
+    }
+    int chosen = start;
+    int fewest = Integer.MAX_VALUE;
+    for (int i = 0; i < replicas.size(); i++) {
+      int candidate = (start + i) % replicas.size();
+      int active = activeConnections(replicas.get(candidate));
+      if (active < fewest) {
+        chosen = candidate;
+        fewest = active;
+      }
+    }
+    return chosen;
+  }
+
+  @Override
+  public void close() {
+    replicas.stream()
+            .filter(HikariDataSource.class::isInstance)
+            .forEach(replica -> ((HikariDataSource) replica).close());
+  }
+
+  private static int activeConnections(DataSource replica) {
+    if (!(replica instanceof HikariDataSource)) {
+      return 0;
+    }
+    //null until the pool got its first connection
+    HikariPoolMXBean pool = ((HikariDataSource) replica).getHikariPoolMXBean();
+    return pool == null ? 0 : pool.getActiveConnections();
+  }
+
+}
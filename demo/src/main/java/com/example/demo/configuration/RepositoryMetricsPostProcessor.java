@@ -0,0 +1,63 @@
+package com.example.demo.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Times every call on Spring Data repositories as {@code repository.invocations}, tagged with
+ * repository, method and exception. The advice is inserted into the proxy Spring Data already builds,
+ * right before the interceptors that execute the call: those end the chain without proceeding, so
+ * an advice added after them would never run.
+ */
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+
+  public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof Repository && bean instanceof Advised) {
+      Advised repository = (Advised) bean;
+      repository.addAdvice(executionPosition(repository), timing(beanName));
+    }
+    return bean;
+  }
+
+  //QueryExecutorMethodInterceptor is not public, it is the first of the executing interceptors
+  private static int executionPosition(Advised repository) {
+    Advisor[] advisors = repository.getAdvisors();
+    for (int i = 0; i < advisors.length; i++) {
+      if ("QueryExecutorMethodInterceptor".equals(advisors[i].getAdvice().getClass().getSimpleName())) {
+        return i;
+      }
+    }
+    return advisors.length;
+  }
+
+  private MethodInterceptor timing(String repository) {
+    return invocation -> {
+      MeterRegistry registry = meterRegistry.getObject();
+      Timer.Sample sample = Timer.start(registry);
+      String exception = "none";
+      try {
+        return invocation.proceed();
+      } catch (Throwable e) {
+        exception = e.getClass().getSimpleName();
+        throw e;
+      } finally {
+        sample.stop(registry.timer("repository.invocations",
+                "repository", repository, "method", invocation.getMethod().getName(), "exception", exception));
+      }
+    };
+  }
+
+}
@@ -1,26 +1,45 @@
 package com.example.demo.controller;
 
+import com.example.demo.data.ClientOrderStats;
+import com.example.demo.data.OrderBatchResult;
+import com.example.demo.data.OrderSummary;
 import com.example.demo.data.Orders;
 import com.example.demo.repository.OrderRepository;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import lombok.experimental.Accessors;
+import com.example.demo.repository.ReadRouting;
+import com.example.demo.service.OrderBatchException;
+import com.example.demo.service.OrderIngestService;
+import com.example.demo.service.OrderCache;
+import com.example.demo.service.OrderEvents;
+import com.example.demo.service.OrderService;
+import com.example.demo.service.TtlCache;
+import com.example.demo.service.UnknownProductException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.persistence.EntityNotFoundException;
-import java.math.BigDecimal;
-import java.util.Objects;
-import java.util.Random;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/order")
@@ -28,85 +47,231 @@ import java.util.concurrent.TimeUnit;
 public class OrderController {
 
   private final OrderRepository orderRepository;
+  private final OrderService orderService;
+  private final OrderIngestService orderIngestService;
+  private final OrderCache orderCache;
+  private final OrderEvents orderEvents;
 
-  @Autowired
-  RestTemplate restTemplate;
-
-  //url -> http://localhost:8282/status
-  @Value("${status.url}")
-  String statusUrl;
+  //rows fetched per round trip while streaming GET /order
+  @Value("${order.page.size:500}")
+  int pageSize;
 
-  ExecutorService executor = Executors.newSingleThreadExecutor();
+  @Autowired
+  ObjectMapper objectMapper;
 
-  public OrderController(OrderRepository orderRepository) {
+  public OrderController(OrderRepository orderRepository,
+                         OrderService orderService,
+                         OrderIngestService orderIngestService,
+                         OrderCache orderCache,
+                         OrderEvents orderEvents) {
     this.orderRepository = orderRepository;
+    this.orderService = orderService;
+    this.orderIngestService = orderIngestService;
+    this.orderCache = orderCache;
+    this.orderEvents = orderEvents;
   }
 
+  /**
+   * Orders with id greater than {@code after}. A page requested with a {@code limit} carries an ETag
+   * over the ids and versions of its orders, so an unchanged page is answered with 304 from one query.
+   */
   @RequestMapping(method = RequestMethod.GET)
-  public Iterable<Orders> getAll() {
-    return orderRepository.findAll();
+  public ResponseEntity<StreamingResponseBody> getAll(@RequestParam(name = "after", defaultValue = "0") long after,
+                                                      @RequestParam(name = "limit", required = false) Integer limit,
+                                                      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    if (limit == null || limit < 1) {
+      return streamPages(after, limit, orderService::findPageAfter, Orders::getId);
+    }
+    String eTag = weakETag(orderService.findPageFingerprint(after, limit));
+    if (matches(ifNoneMatch, eTag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+    return streamPages(after, limit, orderService::findPageAfter, Orders::getId, eTag);
+  }
+
+  /**
+   * Server-sent status changes of the orders with the given ids or client, all orders when neither
+   * is given. Only changes made after subscribing are sent.
+   */
+  @RequestMapping(path = "/events", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamEvents(@RequestParam(name = "id", required = false) List<Long> ids,
+                                 @RequestParam(name = "client", required = false) String client) {
+    return orderEvents.subscribe(event -> (ids == null || ids.contains(event.getId()))
+            && (client == null || client.equals(event.getClient())));
   }
 
+  @RequestMapping(path = "/summary", method = RequestMethod.GET)
+  public ResponseEntity<StreamingResponseBody> getSummaries(@RequestParam(name = "client", required = false) String client,
+                                                            @RequestParam(name = "after", defaultValue = "0") long after,
+                                                            @RequestParam(name = "limit", required = false) Integer limit) {
+    if (client == null) {
+      return streamPages(after, limit, orderRepository::findSummaryPageAfter, OrderSummary::getId);
+    }
+    return streamPages(after, limit,
+            (cursor, page) -> orderRepository.findSummaryPageByClientAfter(client, cursor, page),
+            OrderSummary::getId);
+  }
 
+  /**
+   * The order with its version as ETag. A matching {@code If-None-Match} is answered with 304 from the
+   * cached version when the order is cached, from a version-only query otherwise.
+   */
   @RequestMapping(path = "/{id}", method = RequestMethod.GET)
-  public Orders getOrder(@PathVariable("id") Long id) {
-    return orderRepository.findById(id)
+  public ResponseEntity<Orders> getOrder(@PathVariable("id") Long id,
+                                         @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    if (ifNoneMatch != null) {
+      Optional<String> eTag = orderService.findVersion(id).map(version -> weakETag(id + "." + version));
+      if (eTag.isPresent() && matches(ifNoneMatch, eTag.get())) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+      }
+    }
+    Orders order = orderService.findById(id)
             .orElseThrow(
                     () -> new EntityNotFoundException("Order not found")
             );
+    return ResponseEntity.ok()
+            .eTag(weakETag(order.getId() + "." + order.getVersion()))
+            .body(order);
   }
 
+  /**
+   * Stores the order and queues it for verification. With {@code verify=sync} the response waits,
+   * without holding a request thread, until the order is verified: 201 with the verified order,
+   * or 202 with the order as stored if verification did not finish within {@code order.verify.timeout-ms}.
+   */
   @RequestMapping(method = RequestMethod.POST)
-  @ResponseStatus(HttpStatus.CREATED)
-  public Orders insertOrder(@RequestBody Orders orders) {
-    Orders persistedOrder = orderRepository.save(orders);
-
-    executor.execute(() -> {
-      log.info("Send order for verification: {}", orders);
-
-      try {
-        TimeUnit.SECONDS.sleep(new Random().nextInt(10));
-      } catch (InterruptedException e) {
-        log.error(e.getMessage());
-        Thread.currentThread().interrupt();
-      }
-
-      ResponseEntity<StatusResponse> status = restTemplate.postForEntity(statusUrl,
-              new HttpEntity<>(new StatusRequest().setClient(orders.getClient()).setPrice(orders.getPrice())),
-              StatusResponse.class);
-
-      log.info("Order verified with status: {}", Objects.requireNonNull(status.getBody()).getStatus());
-
-      orderRepository.save(persistedOrder.setStatus(status.getBody().getStatus()));
-    });
+  public CompletableFuture<ResponseEntity<Orders>> insertOrder(@RequestBody Orders orders,
+                                                               @RequestParam(name = "verify", defaultValue = "async") String verify) {
+    if ("sync".equalsIgnoreCase(verify)) {
+      return orderService.createAndVerify(orders)
+              .thenApply(order -> ResponseEntity.status(OrderService.isVerified(order) ? HttpStatus.CREATED : HttpStatus.ACCEPTED)
+                      .body(order));
+    }
+    return orderService.createAsync(orders)
+            .thenApply(order -> ResponseEntity.status(HttpStatus.CREATED).body(order));
+  }
 
-    return persistedOrder;
+  /**
+   * Stores the orders of a JSON array or NDJSON body, committed in chunks. When it fails part way the
+   * answer is 400 for a bad order, 500 otherwise, with the ids stored so far and {@code failedAt},
+   * the position of the first order not stored.
+   */
+  @RequestMapping(path = "/batch", method = RequestMethod.POST,
+          consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+  public ResponseEntity<OrderBatchResult> insertOrders(InputStream body) {
+    try {
+      return ResponseEntity.status(HttpStatus.CREATED).body(orderIngestService.ingest(body));
+    } catch (OrderBatchException e) {
+      boolean badOrder = e.getCause() instanceof JsonProcessingException
+              || e.getCause() instanceof UnknownProductException;
+      return ResponseEntity.status(badOrder ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR)
+              .body(e.getResult());
+    }
   }
 
   @RequestMapping(method = RequestMethod.PUT)
   public Orders updateOrder(@RequestBody Orders orders) {
-    return orderRepository.save(orders);
+    try {
+      return orderService.update(orders);
+    } catch (ObjectOptimisticLockingFailureException e) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, "Order was changed since version " + orders.getVersion());
+    }
   }
 
   @RequestMapping(path = "/{id}", method = RequestMethod.DELETE)
   @ResponseStatus(HttpStatus.NO_CONTENT)
   public void deleteOrder(@PathVariable("id") Long id) {
-    orderRepository.deleteById(id);
+    orderService.delete(id);
   }
 
-  @Data
-  @NoArgsConstructor
-  @Accessors(chain = true)
-  static class StatusRequest {
-    private String client;
-    private BigDecimal price;
+  @RequestMapping(path = "/stats/{client}", method = RequestMethod.GET)
+  public ClientOrderStats getClientStats(@PathVariable("client") String client) {
+    return orderService.getClientStats(client);
   }
 
-  @Data
-  @NoArgsConstructor
-  @Accessors(chain = true)
-  public static class StatusResponse {
-    private String status;
+  @RequestMapping(path = "/cache/stats", method = RequestMethod.GET)
+  public TtlCache.Stats getCacheStats() {
+    return orderCache.getStats();
+  }
+
+  private <T> ResponseEntity<StreamingResponseBody> streamPages(long after, Integer limit,
+                                                                BiFunction<Long, Pageable, List<T>> pageQuery,
+                                                                Function<T, Long> idOf) {
+    return streamPages(after, limit, pageQuery, idOf, null);
+  }
+
+  private <T> ResponseEntity<StreamingResponseBody> streamPages(long after, Integer limit,
+                                                                BiFunction<Long, Pageable, List<T>> pageQuery,
+                                                                Function<T, Long> idOf,
+                                                                String eTag) {
+    if (limit != null && limit < 1) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+    }
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+    if (eTag != null) {
+      response.eTag(eTag);
+    }
+    //the body is written on another thread, keep the request's read-your-writes pinning and replica
+    boolean primary = ReadRouting.isPinnedToPrimary();
+    ReadRouting.Route route = ReadRouting.currentRoute();
+    return response.body(out -> {
+      boolean previous = ReadRouting.pin(primary);
+      ReadRouting.Route previousRoute = ReadRouting.bind(route);
+      try {
+        writePages(out, after, limit, pageQuery, idOf);
+      } finally {
+        ReadRouting.bind(previousRoute);
+        ReadRouting.restore(previous);
+      }
+    });
+  }
+
+  //weak, responses are gzipped and tomcat does not compress responses with a strong ETag
+  private static String weakETag(String value) {
+    return "W/\"" + value + "\"";
+  }
+
+  //weak comparison against every tag listed in If-None-Match
+  private static boolean matches(String ifNoneMatch, String eTag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    String opaqueTag = eTag.substring(2);
+    for (String tag : ifNoneMatch.split(",")) {
+      tag = tag.trim();
+      if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaqueTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes rows with id greater than {@code after} as a JSON array, reading them page by page
+   * with a keyset query so only one page is held in memory at a time.
+   */
+  private <T> void writePages(OutputStream out, long after, Integer limit,
+                              BiFunction<Long, Pageable, List<T>> pageQuery,
+                              Function<T, Long> idOf) throws IOException {
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+      generator.writeStartArray();
+      long cursor = after;
+      int remaining = limit == null ? Integer.MAX_VALUE : limit;
+      while (remaining > 0) {
+        int size = Math.min(remaining, pageSize);
+        List<T> page = pageQuery.apply(cursor, PageRequest.of(0, size));
+        for (T row : page) {
+          generator.writeObject(row);
+        }
+        generator.flush();
+        if (page.size() < size) {
+          break;
+        }
+        remaining -= size;
+        cursor = idOf.apply(page.get(page.size() - 1));
+      }
+      generator.writeEndArray();
+    }
   }
 
 }
@@ -0,0 +1,68 @@
+package com.example.demo.controller;
+
+import com.example.demo.data.Products;
+import com.example.demo.service.CatalogService;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Catalog reads are answered from the in-memory index of {@link CatalogService}, writes go to the
+ * database and update the index.
+ */
+@RestController
+@RequestMapping("/product")
+public class ProductController {
+
+  private final CatalogService catalogService;
+
+  public ProductController(CatalogService catalogService) {
+    this.catalogService = catalogService;
+  }
+
+  @RequestMapping(method = RequestMethod.GET)
+  public List<Products> find(@RequestParam(name = "category", required = false) String category,
+                             @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+                             @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+                             @RequestParam(name = "name", required = false) String namePrefix) {
+    return catalogService.find(category, minPrice, maxPrice, namePrefix);
+  }
+
+  @RequestMapping(path = "/{id}", method = RequestMethod.GET)
+  public Products getProduct(@PathVariable("id") Long id) {
+    return catalogService.findById(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+  }
+
+  @RequestMapping(method = RequestMethod.POST)
+  @ResponseStatus(HttpStatus.CREATED)
+  public Products insertProduct(@RequestBody Products product) {
+    return catalogService.save(product.setId(null).setVersion(null));
+  }
+
+  @RequestMapping(path = "/{id}", method = RequestMethod.PUT)
+  public Products updateProduct(@PathVariable("id") Long id, @RequestBody Products product) {
+    if (!catalogService.findById(id).isPresent()) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+    }
+    try {
+      return catalogService.save(product.setId(id));
+    } catch (ObjectOptimisticLockingFailureException e) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, "Product was changed since version " + product.getVersion());
+    }
+  }
+
+  @RequestMapping(path = "/{id}", method = RequestMethod.DELETE)
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void deleteProduct(@PathVariable("id") Long id) {
+    if (!catalogService.findById(id).isPresent()) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+    }
+    catalogService.delete(id);
+  }
+
+}
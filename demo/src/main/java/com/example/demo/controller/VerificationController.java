@@ -0,0 +1,61 @@
+package com.example.demo.controller;
+
+import com.example.demo.data.ConnectionPoolStats;
+import com.example.demo.service.StatusCallGuard;
+import com.example.demo.service.StatusClient;
+import com.example.demo.service.TtlCache;
+import com.example.demo.service.VerificationEngine;
+import com.example.demo.service.VerificationOutboxService;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/verification")
+public class VerificationController {
+
+  private final VerificationEngine verificationEngine;
+  private final StatusClient statusClient;
+  private final StatusCallGuard statusCallGuard;
+  private final PoolingHttpClientConnectionManager connectionManager;
+  private final VerificationOutboxService verificationOutboxService;
+
+  public VerificationController(VerificationEngine verificationEngine,
+                                StatusClient statusClient,
+                                StatusCallGuard statusCallGuard,
+                                PoolingHttpClientConnectionManager connectionManager,
+                                VerificationOutboxService verificationOutboxService) {
+    this.verificationEngine = verificationEngine;
+    this.statusClient = statusClient;
+    this.statusCallGuard = statusCallGuard;
+    this.connectionManager = connectionManager;
+    this.verificationOutboxService = verificationOutboxService;
+  }
+
+  @RequestMapping(path = "/stats", method = RequestMethod.GET)
+  public VerificationEngine.Stats getStats() {
+    return verificationEngine.getStats();
+  }
+
+  @RequestMapping(path = "/outbox", method = RequestMethod.GET)
+  public VerificationOutboxService.Stats getOutboxStats() {
+    return verificationOutboxService.getStats();
+  }
+
+  @RequestMapping(path = "/cache", method = RequestMethod.GET)
+  public TtlCache.Stats getCacheStats() {
+    return statusClient.getCacheStats();
+  }
+
+  @RequestMapping(path = "/status-calls", method = RequestMethod.GET)
+  public StatusCallGuard.Stats getStatusCallStats() {
+    return statusCallGuard.getStats();
+  }
+
+  @RequestMapping(path = "/http-pool", method = RequestMethod.GET)
+  public ConnectionPoolStats getHttpPoolStats() {
+    return ConnectionPoolStats.of(connectionManager.getTotalStats());
+  }
+
+}
@@ -0,0 +1,17 @@
+package com.example.demo.data;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Accessors(chain = true)
+public class ClientOrderStats {
+  private String client;
+  private long count;
+  private BigDecimal totalPrice = BigDecimal.ZERO;
+  private Map<String, Long> statusCounts = new LinkedHashMap<>();
+}
@@ -0,0 +1,16 @@
+package com.example.demo.data;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of the trigger maintained {@code client_order_stats} table.
+ */
+public interface ClientStatusTotal {
+
+  String getStatus();
+
+  Long getCount();
+
+  BigDecimal getTotalPrice();
+
+}
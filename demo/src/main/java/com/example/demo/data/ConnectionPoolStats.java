@@ -0,0 +1,22 @@
+package com.example.demo.data;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.apache.http.pool.PoolStats;
+
+@Data
+@Accessors(chain = true)
+public class ConnectionPoolStats {
+  private int leased;
+  private int pending;
+  private int available;
+  private int max;
+
+  public static ConnectionPoolStats of(PoolStats poolStats) {
+    return new ConnectionPoolStats()
+            .setLeased(poolStats.getLeased())
+            .setPending(poolStats.getPending())
+            .setAvailable(poolStats.getAvailable())
+            .setMax(poolStats.getMax());
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Accessors(chain = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderBatchResult {
+  private int count;
+  private List<Long> ids = new ArrayList<>();
+  //position in the body of the first order not stored, set when the batch failed
+  private Integer failedAt;
+  private String error;
+}
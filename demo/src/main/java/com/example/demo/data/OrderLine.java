@@ -0,0 +1,31 @@
+package com.example.demo.data;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+@Entity
+@Data
+@Accessors(chain = true)
+public class OrderLine {
+
+  //sequence ids keep the inserts batchable, identity would force one round trip per line
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_line_seq")
+  @SequenceGenerator(name = "order_line_seq", sequenceName = "order_line_seq", allocationSize = 50)
+  @Id
+  private Long id;
+  private Long orderId;
+  @NotNull
+  private Long productId;
+  //read only, fetched together with the lines, see OrderLineRepository
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "product_id", insertable = false, updatable = false)
+  private Products product;
+  private int quantity = 1;
+  //unit price at the time of ordering, defaults to the product price
+  private BigDecimal price;
+
+}
@@ -0,0 +1,22 @@
+package com.example.demo.data;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class OrderStatusEvent {
+
+  private Long id;
+  private String client;
+  private String status;
+  private Long version;
+
+  public static OrderStatusEvent of(Orders order) {
+    return new OrderStatusEvent()
+            .setId(order.getId())
+            .setClient(order.getClient())
+            .setStatus(order.getStatus())
+            .setVersion(order.getVersion());
+  }
+}
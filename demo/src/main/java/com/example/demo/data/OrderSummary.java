@@ -0,0 +1,19 @@
+package com.example.demo.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read-only list view of an order, built straight from the selected columns
+ * without loading a managed {@link Orders} entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+  private Long id;
+  private String number;
+  private String client;
+  private String status;
+}
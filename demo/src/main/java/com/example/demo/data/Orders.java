@@ -6,6 +6,8 @@ import lombok.experimental.Accessors;
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,7 +16,8 @@ import java.util.List;
 @Accessors(chain = true)
 public class Orders {
 
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+  @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
   @Id
   private Long id;
   @NotNull
@@ -22,10 +25,21 @@ public class Orders {
   private String client;
   private BigDecimal price;
   private String status = "not verified";
+  @Column(updatable = false)
+  private LocalDateTime createdAt;
+  @Version
+  private Long version;
 
-//  @OneToMany(
-//          cascade = CascadeType.ALL,
-//          orphanRemoval = true
-//  )
-//  private List<Products> productsList = new ArrayList<>();
+  @PrePersist
+  void onCreate() {
+    if (createdAt == null) {
+      //postgres keeps microseconds
+      createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+  }
+
+  //not a mapped collection: lines are loaded for a whole page of orders at once and written
+  //as batch inserts by OrderLineService, instead of lazily per order
+  @Transient
+  private List<OrderLine> lines = new ArrayList<>();
 }
@@ -2,6 +2,7 @@ package com.example.demo.data;
 
 import lombok.Data;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
@@ -9,6 +10,8 @@ import java.math.BigDecimal;
 @Entity
 @Data
 @Accessors(chain = true)
+//products referenced by lines loaded without their entity graph are fetched in batches
+@BatchSize(size = 100)
 public class Products {
 
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -17,5 +20,7 @@ public class Products {
   private String name;
   private String category;
   private BigDecimal price;
+  @Version
+  private Long version;
 
 }
@@ -0,0 +1,15 @@
+package com.example.demo.data;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@Accessors(chain = true)
+public class StatusRequest {
+  private String client;
+  private BigDecimal price;
+}
@@ -0,0 +1,12 @@
+package com.example.demo.data;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+@Data
+@NoArgsConstructor
+@Accessors(chain = true)
+public class StatusResponse {
+  private String status;
+}
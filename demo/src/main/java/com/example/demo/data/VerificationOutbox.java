@@ -0,0 +1,24 @@
+package com.example.demo.data;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Accessors(chain = true)
+public class VerificationOutbox {
+
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "verification_outbox_seq")
+  @SequenceGenerator(name = "verification_outbox_seq", sequenceName = "verification_outbox_seq", allocationSize = 50)
+  @Id
+  private Long id;
+  private Long orderId;
+  private int attempts;
+  //null once the entry ran out of attempts
+  private LocalDateTime nextAttemptAt;
+  private LocalDateTime createdAt;
+  private String lastError;
+}
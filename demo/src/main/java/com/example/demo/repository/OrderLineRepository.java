@@ -0,0 +1,28 @@
+package com.example.demo.repository;
+
+import com.example.demo.data.OrderLine;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderLineRepository extends CrudRepository<OrderLine, Long> {
+
+  //lines of a whole page of orders and their products in one query
+  @Transactional(readOnly = true)
+  @EntityGraph(attributePaths = "product")
+  List<OrderLine> findByOrderIdInOrderById(Collection<Long> orderIds);
+
+  @Transactional
+  @Modifying
+  @Query("delete from OrderLine l where l.orderId = :orderId")
+  int deleteByOrderId(@Param("orderId") Long orderId);
+
+}
@@ -1,15 +1,20 @@
 package com.example.demo.repository;
 
+import com.example.demo.data.ClientStatusTotal;
+import com.example.demo.data.OrderSummary;
 import com.example.demo.data.Orders;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends CrudRepository<Orders, Long> {
+public interface OrderRepository extends JpaRepository<Orders, Long>, OrderStatusUpdates {
 
   List<Orders> findAllByClientAndNumber(String client, String number);
 
@@ -19,4 +24,32 @@ public interface OrderRepository extends CrudRepository<Orders, Long> {
   @Query(value = "select * from Orders order by price desc limit 2", nativeQuery = true)
   Orders getOneOrder();
 
+  @Query("select o.version from Orders o where o.id = :id")
+  Optional<Long> findVersionById(@Param("id") Long id);
+
+  @Query("select o from Orders o where o.id > :after order by o.id")
+  List<Orders> findPageAfter(@Param("after") Long after, Pageable pageable);
+
+  //changes with every insert, update or delete within the page, lines are never changed after insert
+  @Transactional(readOnly = true)
+  @Query(value = "select md5(coalesce(string_agg(id || '.' || version, ',' order by id), '')) from " +
+          "(select id, version from orders where id > :after order by id limit :limit) page", nativeQuery = true)
+  String findPageFingerprint(@Param("after") Long after, @Param("limit") int limit);
+
+  @Transactional(readOnly = true)
+  @Query("select new com.example.demo.data.OrderSummary(o.id, o.number, o.client, o.status) from Orders o " +
+          "where o.id > :after order by o.id")
+  List<OrderSummary> findSummaryPageAfter(@Param("after") Long after, Pageable pageable);
+
+  @Transactional(readOnly = true)
+  @Query("select new com.example.demo.data.OrderSummary(o.id, o.number, o.client, o.status) from Orders o " +
+          "where o.client = :client and o.id > :after order by o.id")
+  List<OrderSummary> findSummaryPageByClientAfter(@Param("client") String client, @Param("after") Long after, Pageable pageable);
+
+  //aggregates kept up to date by the orders_client_order_stats trigger, see V4 migration
+  @Transactional(readOnly = true)
+  @Query(value = "select status as \"status\", order_count as \"count\", total_price as \"totalPrice\" " +
+          "from client_order_stats where client = :client and order_count > 0", nativeQuery = true)
+  List<ClientStatusTotal> findStatusTotalsByClient(@Param("client") String client);
+
 }
@@ -0,0 +1,15 @@
+package com.example.demo.repository;
+
+import com.example.demo.data.Orders;
+
+import java.util.List;
+
+public interface OrderStatusUpdates {
+
+  /**
+   * Writes the status of each order in one JDBC batch, only where the stored version still matches
+   * the order's version. Returns the updated row count per order, 0 when the order changed or is gone.
+   */
+  int[] updateStatuses(List<Orders> orders);
+
+}
@@ -0,0 +1,30 @@
+package com.example.demo.repository;
+
+import com.example.demo.data.Orders;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+//picked up by Spring Data as the implementation of the OrderStatusUpdates fragment
+class OrderStatusUpdatesImpl implements OrderStatusUpdates {
+
+  //the id is the partition key, postgres prunes to the one partition holding the row
+  private static final String UPDATE_STATUS =
+          "update orders set status = ?, version = version + 1 where id = ? and version = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  OrderStatusUpdatesImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public int[] updateStatuses(List<Orders> orders) {
+    return jdbcTemplate.batchUpdate(UPDATE_STATUS, orders.stream()
+            .map(order -> new Object[]{
+                    order.getStatus(), order.getId(), order.getVersion()})
+            .collect(Collectors.toList()));
+  }
+
+}
@@ -0,0 +1,103 @@
+package com.example.demo.repository;
+
+import java.util.function.Supplier;
+
+/**
+ * Where the read-only transactions of the current thread go when replicas are configured.
+ * Reads pinned to the primary see the latest committed writes. Reads within a {@link Route} all go to
+ * the replica chosen for its first read, so the reads of one request see the same replication state.
+ * Without replicas configured it has no effect.
+ *
+ * @see com.example.demo.configuration.ReplicaRoutingDataSource
+ */
+public final class ReadRouting {
+
+  private static final ThreadLocal<Boolean> PRIMARY = ThreadLocal.withInitial(() -> false);
+  private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+
+  /**
+   * The replica the reads of one request go to, chosen on the first read. May be handed to the thread
+   * that finishes the request.
+   */
+  public static final class Route {
+
+    private Object replica;
+
+    public synchronized Object replica(Supplier<Object> choose) {
+      if (replica == null) {
+        replica = choose.get();
+      }
+      return replica;
+    }
+
+    public synchronized boolean isReplicaChosen() {
+      return replica != null;
+    }
+
+  }
+
+  private ReadRouting() {
+  }
+
+  public static <T> T onPrimary(Supplier<T> reads) {
+    boolean previous = pin(true);
+    try {
+      return reads.get();
+    } finally {
+      restore(previous);
+    }
+  }
+
+  /**
+   * Runs the reads on one replica: the one of the current route, or of a route bound for these reads.
+   */
+  public static <T> T onOneReplica(Supplier<T> reads) {
+    if (ROUTE.get() != null) {
+      return reads.get();
+    }
+    bind(new Route());
+    try {
+      return reads.get();
+    } finally {
+      bind(null);
+    }
+  }
+
+  public static boolean isPinnedToPrimary() {
+    return PRIMARY.get();
+  }
+
+  /**
+   * Pins the thread to the primary when {@code primary} is set, returns the previous state to {@link #restore}.
+   */
+  public static boolean pin(boolean primary) {
+    boolean previous = PRIMARY.get();
+    PRIMARY.set(previous || primary);
+    return previous;
+  }
+
+  public static void restore(boolean previous) {
+    PRIMARY.set(previous);
+  }
+
+  /**
+   * The route of the current thread, null outside of one.
+   */
+  public static Route currentRoute() {
+    return ROUTE.get();
+  }
+
+  /**
+   * Binds the route to the current thread, null unbinds. Returns the previous route to bind back.
+   */
+  public static Route bind(Route route) {
+    Route previous = ROUTE.get();
+    if (route == null) {
+      ROUTE.remove();
+    } else {
+      ROUTE.set(route);
+    }
+    return previous;
+  }
+
+}
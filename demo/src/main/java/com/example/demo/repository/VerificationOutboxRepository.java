@@ -0,0 +1,44 @@
+package com.example.demo.repository;
+
+import com.example.demo.data.VerificationOutbox;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface VerificationOutboxRepository extends CrudRepository<VerificationOutbox, Long> {
+
+  @Query(value = "select * from verification_outbox where next_attempt_at <= :now order by next_attempt_at limit :limit for update skip locked",
+          nativeQuery = true)
+  List<VerificationOutbox> findDueForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+  @Modifying
+  @Query("update VerificationOutbox e set e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError where e.id = :id")
+  int reschedule(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastError") String lastError);
+
+  @Modifying
+  @Query("update VerificationOutbox e set e.nextAttemptAt = null, e.lastError = :lastError where e.id = :id")
+  int park(@Param("id") Long id, @Param("lastError") String lastError);
+
+  @Modifying
+  @Query("update VerificationOutbox e set e.nextAttemptAt = :nextAttemptAt where e.id in :ids")
+  int rescheduleAll(@Param("ids") List<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+  @Modifying
+  @Query("delete from VerificationOutbox e where e.id = :id")
+  int deleteEntry(@Param("id") Long id);
+
+  @Modifying
+  @Query("delete from VerificationOutbox e where e.id in :ids")
+  int deleteEntries(@Param("ids") List<Long> ids);
+
+  long countByNextAttemptAtIsNotNull();
+
+  long countByNextAttemptAtIsNull();
+
+}
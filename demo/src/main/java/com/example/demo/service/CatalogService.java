@@ -0,0 +1,72 @@
+package com.example.demo.service;
+
+import com.example.demo.data.Products;
+import com.example.demo.repository.ProductsRepository;
+import com.example.demo.repository.ReadRouting;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityNotFoundException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Product catalog served from a {@link ProductIndex}. The index is loaded at startup and updated
+ * by every write going through this service once it is committed, the periodic reload picks up
+ * writes made elsewhere, e.g. by other nodes. Products written here during a reload keep their
+ * state from the write unless the reload has a newer version.
+ */
+@Service
+@Slf4j
+public class CatalogService {
+
+  private final ProductsRepository productsRepository;
+  private final ProductIndex index = new ProductIndex();
+
+  public CatalogService(ProductsRepository productsRepository) {
+    this.productsRepository = productsRepository;
+  }
+
+  @PostConstruct
+  @Scheduled(initialDelayString = "${catalog.reload-interval-ms:300000}", fixedDelayString = "${catalog.reload-interval-ms:300000}")
+  public void reload() {
+    long generation = index.generation();
+    //on the primary, a lagging replica would bring back products written here before the reload
+    Iterable<Products> products = ReadRouting.onPrimary(() -> productsRepository.findAll());
+    index.replaceAll(products, generation);
+    log.info("Loaded {} products into the catalog index", index.size());
+  }
+
+  public Optional<Products> findById(Long id) {
+    return index.get(id);
+  }
+
+  public List<Products> find(String category, BigDecimal minPrice, BigDecimal maxPrice, String namePrefix) {
+    return index.find(category, minPrice, maxPrice, namePrefix);
+  }
+
+  /**
+   * Saves the product, committed when this returns, then puts it in the index. Concurrent saves of one
+   * product can reach the index in any order, the index keeps the highest version. A product without
+   * a version overwrites whatever is stored.
+   */
+  public Products save(Products product) {
+    if (product.getId() != null && product.getVersion() == null) {
+      product.setVersion(ReadRouting.onPrimary(() -> productsRepository.findById(product.getId()))
+              .map(Products::getVersion)
+              .orElseThrow(() -> new EntityNotFoundException("Product not found")));
+    }
+    Products saved = productsRepository.save(product);
+    index.put(saved);
+    return saved;
+  }
+
+  public void delete(Long id) {
+    productsRepository.deleteById(id);
+    index.remove(id);
+  }
+
+}
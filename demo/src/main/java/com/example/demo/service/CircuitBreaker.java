@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Opens after {@code failureThreshold} consecutive failures and rejects calls for
+ * {@code openDuration}. After that a single probe call is let through: success closes
+ * the circuit, failure opens it again. Outcomes are reported with the {@link Permit} the call
+ * was acquired with, so only the probe decides on a circuit that is not closed.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  public enum Permit {
+    REJECTED,
+    //acquired while closed
+    CALL,
+    //the single call let through while half open
+    PROBE
+  }
+
+  private final int failureThreshold;
+  private final long openNanos;
+  private final LongSupplier clock;
+
+  private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+  private final AtomicLong openedAt = new AtomicLong();
+  private final AtomicBoolean probeInFlight = new AtomicBoolean();
+  private final AtomicLong rejected = new AtomicLong();
+
+  public CircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+    this(failureThreshold, openDuration, unit, System::nanoTime);
+  }
+
+  CircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit, LongSupplier clock) {
+    this.failureThreshold = failureThreshold;
+    this.openNanos = unit.toNanos(openDuration);
+    this.clock = clock;
+  }
+
+  public Permit tryAcquire() {
+    State current = state.get();
+    if (current == State.CLOSED) {
+      return Permit.CALL;
+    }
+    if (current == State.OPEN && clock.getAsLong() - openedAt.get() >= openNanos) {
+      state.compareAndSet(State.OPEN, State.HALF_OPEN);
+    }
+    if (state.get() == State.HALF_OPEN && probeInFlight.compareAndSet(false, true)) {
+      return Permit.PROBE;
+    }
+    rejected.incrementAndGet();
+    return Permit.REJECTED;
+  }
+
+  public void onSuccess(Permit permit) {
+    if (permit == Permit.PROBE) {
+      consecutiveFailures.set(0);
+      state.set(State.CLOSED);
+      probeInFlight.set(false);
+      log.info("Circuit closed");
+    } else if (permit == Permit.CALL && state.get() == State.CLOSED) {
+      //a call that started before the circuit opened does not close it
+      consecutiveFailures.set(0);
+    }
+  }
+
+  public void onFailure(Permit permit) {
+    if (permit == Permit.PROBE) {
+      openedAt.set(clock.getAsLong());
+      state.set(State.OPEN);
+      probeInFlight.set(false);
+      log.warn("Circuit opened again, the probe failed");
+    } else if (permit == Permit.CALL) {
+      int failures = consecutiveFailures.incrementAndGet();
+      //late failures of calls acquired before the circuit opened do not extend it
+      if (failures >= failureThreshold && state.get() == State.CLOSED) {
+        openedAt.set(clock.getAsLong());
+        if (state.compareAndSet(State.CLOSED, State.OPEN)) {
+          log.warn("Circuit opened after {} consecutive failures", failures);
+        }
+      }
+    }
+  }
+
+  //the acquired call was never made, frees the probe without a verdict
+  public void release(Permit permit) {
+    if (permit == Permit.PROBE) {
+      probeInFlight.set(false);
+    }
+  }
+
+  public State getState() {
+    return state.get();
+  }
+
+  public int getConsecutiveFailures() {
+    return consecutiveFailures.get();
+  }
+
+  public long getRejected() {
+    return rejected.get();
+  }
+
+}
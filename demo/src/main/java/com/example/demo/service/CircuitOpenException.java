@@ -0,0 +1,8 @@
+package com.example.demo.service;
+
+public class CircuitOpenException extends RuntimeException {
+
+  public CircuitOpenException(String message) {
+    super(message);
+  }
+}
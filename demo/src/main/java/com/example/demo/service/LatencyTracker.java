@@ -0,0 +1,41 @@
+package com.example.demo.service;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the last {@code capacity} latency samples to estimate recent percentiles.
+ */
+public class LatencyTracker {
+
+  private final long[] samples;
+  private long count;
+
+  public LatencyTracker(int capacity) {
+    this.samples = new long[capacity];
+  }
+
+  public synchronized void record(long nanos) {
+    samples[(int) (count++ % samples.length)] = nanos;
+  }
+
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * @return the given percentile (0-100) of the recorded samples in nanoseconds, or -1 without samples
+   */
+  public long percentile(double percentile) {
+    long[] copy;
+    synchronized (this) {
+      if (count == 0) {
+        return -1;
+      }
+      copy = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+    }
+    Arrays.sort(copy);
+    int index = (int) Math.ceil(percentile / 100.0 * copy.length) - 1;
+    return copy[Math.max(0, Math.min(index, copy.length - 1))];
+  }
+
+}
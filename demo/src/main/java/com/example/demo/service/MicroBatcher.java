@@ -0,0 +1,130 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects submitted items until {@code maxBatchSize} items are pending or the oldest one waited
+ * {@code maxWaitMillis}, then hands the whole batch to {@code handler} in a single call.
+ * The handler must return one result per item, in the same order.
+ */
+@Slf4j
+public class MicroBatcher<T, R> implements AutoCloseable {
+
+  private final int maxBatchSize;
+  private final long maxWaitNanos;
+  private final Function<List<T>, List<R>> handler;
+  private final BlockingQueue<Pending<T, R>> pending = new LinkedBlockingQueue<>();
+  private final ThreadPoolExecutor flushExecutor;
+  private final Thread collector;
+
+  private volatile boolean running = true;
+
+  public MicroBatcher(String name, int maxBatchSize, long maxWaitMillis, int concurrency,
+                      Function<List<T>, List<R>> handler) {
+    this.maxBatchSize = maxBatchSize;
+    this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    this.handler = handler;
+    //a full flush queue makes the collector flush itself, which slows down collection
+    this.flushExecutor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(concurrency), new CustomizableThreadFactory(name + "-flush-"),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    this.collector = new Thread(this::collect, name + "-collector");
+    this.collector.setDaemon(true);
+    this.collector.start();
+  }
+
+  public CompletableFuture<R> submit(T item) {
+    CompletableFuture<R> result = new CompletableFuture<>();
+    if (!running) {
+      result.completeExceptionally(new IllegalStateException("Batcher is closed"));
+      return result;
+    }
+    Pending<T, R> entry = new Pending<>(item, result);
+    pending.add(entry);
+    //close() may have drained the queue in between, if it did not take the item nobody will
+    if (!running && pending.remove(entry)) {
+      result.completeExceptionally(new IllegalStateException("Batcher is closed"));
+    }
+    return result;
+  }
+
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    running = false;
+    collector.interrupt();
+    collector.join(TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + 1000);
+    List<Pending<T, R>> rest = new ArrayList<>();
+    pending.drainTo(rest);
+    for (int i = 0; i < rest.size(); i += maxBatchSize) {
+      flush(new ArrayList<>(rest.subList(i, Math.min(i + maxBatchSize, rest.size()))));
+    }
+    flushExecutor.shutdown();
+    flushExecutor.awaitTermination(30, TimeUnit.SECONDS);
+  }
+
+  private void collect() {
+    while (running) {
+      List<Pending<T, R>> batch = new ArrayList<>(maxBatchSize);
+      try {
+        batch.add(pending.take());
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+          Pending<T, R> next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (!batch.isEmpty()) {
+        flushExecutor.execute(() -> flush(batch));
+      }
+    }
+  }
+
+  private void flush(List<Pending<T, R>> batch) {
+    List<T> items = new ArrayList<>(batch.size());
+    batch.forEach(p -> items.add(p.item));
+    try {
+      List<R> results = handler.apply(items);
+      if (results == null || results.size() != batch.size()) {
+        throw new IllegalStateException("Expected " + batch.size() + " results but got "
+                + (results == null ? "none" : results.size()));
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        batch.get(i).result.complete(results.get(i));
+      }
+    } catch (RuntimeException e) {
+      log.error("Batch of {} items failed: {}", batch.size(), e.getMessage());
+      batch.forEach(p -> p.result.completeExceptionally(e));
+    }
+  }
+
+  private static class Pending<T, R> {
+    private final T item;
+    private final CompletableFuture<R> result;
+
+    Pending(T item, CompletableFuture<R> result) {
+      this.item = item;
+      this.result = result;
+    }
+  }
+
+}
@@ -0,0 +1,18 @@
+package com.example.demo.service;
+
+import com.example.demo.data.OrderBatchResult;
+import lombok.Getter;
+
+/**
+ * A batch that stopped part way, with the orders committed before the failure in {@link #getResult()}.
+ */
+@Getter
+public class OrderBatchException extends RuntimeException {
+
+  private final OrderBatchResult result;
+
+  public OrderBatchException(OrderBatchResult result, Throwable cause) {
+    super(result.getError(), cause);
+    this.result = result;
+  }
+}
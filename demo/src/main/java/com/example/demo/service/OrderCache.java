@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import com.example.demo.data.Orders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders by id, kept in memory for {@code order.cache.ttl-seconds}. Every write path invalidates
+ * its entry and records the version it wrote, rows older than that are not cached again, whether
+ * read before the commit or from a lagging replica. The TTL only bounds staleness from other nodes.
+ */
+@Component
+public class OrderCache {
+
+  private final TtlCache<Long, Orders> cache;
+  //lowest version still cacheable per id written by this node, Long.MAX_VALUE once deleted
+  private final TtlCache<Long, Long> minVersions;
+
+  public OrderCache(@Value("${order.cache.max-size:10000}") int maxSize,
+                    @Value("${order.cache.ttl-seconds:30}") long ttlSeconds) {
+    this.cache = new TtlCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+    this.minVersions = new TtlCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+  }
+
+  public Orders get(Long id) {
+    return cache.get(id);
+  }
+
+  /**
+   * Caches the order unless this node wrote a newer version of it. Returns whether it was cached.
+   */
+  public synchronized boolean put(Orders order) {
+    Long minVersion = minVersions.get(order.getId());
+    if (minVersion != null && (order.getVersion() == null || order.getVersion() < minVersion)) {
+      return false;
+    }
+    cache.put(order.getId(), order);
+    return true;
+  }
+
+  /**
+   * Invalidates now and again once the surrounding transaction completes, and from now on only caches
+   * the order at {@code version} or later. Long.MAX_VALUE for a deleted order.
+   */
+  public void invalidateOnCompletion(Long id, long version) {
+    invalidate(id, version);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCompletion(int status) {
+          cache.invalidate(id);
+        }
+      });
+    }
+  }
+
+  private synchronized void invalidate(Long id, long version) {
+    Long minVersion = minVersions.get(id);
+    minVersions.put(id, minVersion == null ? version : Math.max(minVersion, version));
+    cache.invalidate(id);
+  }
+
+  public TtlCache.Stats getStats() {
+    return cache.getStats();
+  }
+
+}
@@ -0,0 +1,186 @@
+package com.example.demo.service;
+
+import com.example.demo.data.OrderStatusEvent;
+import com.example.demo.data.Orders;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Pushes order status changes to server-sent event subscribers. Every subscriber has a buffer of
+ * {@code order.events.buffer-size} events drained by the shared sender threads, so a slow client
+ * never holds up the write-back. A subscriber whose buffer is full is disconnected, it has to
+ * reconnect and read the orders it missed.
+ */
+@Component
+@Slf4j
+public class OrderEvents {
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final int bufferSize;
+  private final long timeoutMillis;
+  private final ThreadPoolExecutor sendExecutor;
+  private final AtomicLong published = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  public OrderEvents(@Value("${order.events.threads:4}") int threads,
+                     @Value("${order.events.buffer-size:256}") int bufferSize,
+                     @Value("${order.events.timeout-ms:1800000}") long timeoutMillis) {
+    this.bufferSize = bufferSize;
+    this.timeoutMillis = timeoutMillis;
+    //holds at most one drain task per subscriber
+    this.sendExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), new CustomizableThreadFactory("order-events-"));
+  }
+
+  /**
+   * Subscribes to the status changes matching the filter, until the client disconnects
+   * or {@code order.events.timeout-ms} passes.
+   */
+  public SseEmitter subscribe(Predicate<OrderStatusEvent> filter) {
+    Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMillis), filter);
+    subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+    subscriber.emitter.onTimeout(subscriber::close);
+    subscriber.emitter.onError(error -> subscriber.close());
+    subscribers.add(subscriber);
+    return subscriber.emitter;
+  }
+
+  //subscribers must not see a status that is rolled back
+  public void publishOnCommit(Orders order) {
+    OrderStatusEvent event = OrderStatusEvent.of(order);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      publish(event);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+      @Override
+      public void afterCommit() {
+        publish(event);
+      }
+    });
+  }
+
+  public void publish(OrderStatusEvent event) {
+    published.incrementAndGet();
+    for (Subscriber subscriber : subscribers) {
+      if (subscriber.filter.test(event)) {
+        subscriber.offer(SseEmitter.event()
+                .id(event.getId() + ":" + event.getVersion())
+                .name("status")
+                .data(event, MediaType.APPLICATION_JSON));
+      }
+    }
+  }
+
+  //keeps idle connections open through proxies and finds clients that are gone
+  @Scheduled(fixedDelayString = "${order.events.heartbeat-ms:15000}")
+  public void heartbeat() {
+    subscribers.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat")));
+  }
+
+  public Stats getStats() {
+    return new Stats()
+            .setSubscribers(subscribers.size())
+            .setPublished(published.get())
+            .setDropped(dropped.get());
+  }
+
+  @PreDestroy
+  public void close() {
+    subscribers.forEach(Subscriber::close);
+    sendExecutor.shutdownNow();
+  }
+
+  private class Subscriber {
+
+    final SseEmitter emitter;
+    final Predicate<OrderStatusEvent> filter;
+    final BlockingQueue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(bufferSize);
+    final AtomicBoolean draining = new AtomicBoolean();
+    volatile boolean closed;
+
+    Subscriber(SseEmitter emitter, Predicate<OrderStatusEvent> filter) {
+      this.emitter = emitter;
+      this.filter = filter;
+    }
+
+    void offer(SseEmitter.SseEventBuilder event) {
+      if (closed) {
+        return;
+      }
+      if (!buffer.offer(event)) {
+        dropped.incrementAndGet();
+        log.warn("Disconnecting order events subscriber, {} events not sent", buffer.size());
+        close();
+        return;
+      }
+      drainLater();
+    }
+
+    void drainLater() {
+      if (draining.compareAndSet(false, true)) {
+        sendExecutor.execute(this::drain);
+      }
+    }
+
+    void drain() {
+      try {
+        SseEmitter.SseEventBuilder event;
+        while (!closed && (event = buffer.poll()) != null) {
+          emitter.send(event);
+        }
+      } catch (IOException | IllegalStateException e) {
+        log.debug("Order events subscriber gone: {}", e.getMessage());
+        close();
+      } finally {
+        draining.set(false);
+      }
+      //offered after the loop ended but before the flag was cleared
+      if (!closed && !buffer.isEmpty()) {
+        drainLater();
+      }
+    }
+
+    void close() {
+      closed = true;
+      subscribers.remove(this);
+      buffer.clear();
+      try {
+        emitter.complete();
+      } catch (IllegalStateException e) {
+        //already completed
+      }
+    }
+  }
+
+  @Data
+  @Accessors(chain = true)
+  public static class Stats {
+    private int subscribers;
+    private long published;
+    private long dropped;
+  }
+
+}
@@ -0,0 +1,106 @@
+package com.example.demo.service;
+
+import com.example.demo.data.OrderBatchResult;
+import com.example.demo.data.Orders;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads orders from a JSON array or NDJSON stream and persists them in chunks, one transaction
+ * per chunk, so Hibernate can send them as JDBC batch inserts. Verification of the whole chunk
+ * is enqueued in the outbox within the same transaction.
+ */
+@Service
+@Slf4j
+public class OrderIngestService {
+
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final VerificationOutboxService verificationOutboxService;
+  private final OrderLineService orderLineService;
+
+  @PersistenceContext
+  EntityManager entityManager;
+
+  @Value("${order.batch.chunk-size:500}")
+  int chunkSize;
+
+  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+  int jdbcBatchSize;
+
+  public OrderIngestService(ObjectMapper objectMapper,
+                            TransactionTemplate transactionTemplate,
+                            VerificationOutboxService verificationOutboxService,
+                            OrderLineService orderLineService) {
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = transactionTemplate;
+    this.verificationOutboxService = verificationOutboxService;
+    this.orderLineService = orderLineService;
+  }
+
+  /**
+   * Stores the orders of the body. Chunks are committed as they are read, so a failure part way throws
+   * {@link OrderBatchException} with the orders already stored and the position to resume from.
+   */
+  public OrderBatchResult ingest(InputStream body) {
+    OrderBatchResult result = new OrderBatchResult();
+    try (MappingIterator<Orders> orders = objectMapper.readerFor(Orders.class).readValues(body)) {
+      List<Orders> chunk = new ArrayList<>(chunkSize);
+      while (orders.hasNextValue()) {
+        chunk.add(orders.nextValue());
+        if (chunk.size() == chunkSize) {
+          ingestChunk(chunk, result);
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+      if (!chunk.isEmpty()) {
+        ingestChunk(chunk, result);
+      }
+    } catch (IOException | RuntimeException e) {
+      //the failing chunk was rolled back, everything before it is committed
+      String error = e instanceof JsonProcessingException ? ((JsonProcessingException) e).getOriginalMessage() : e.getMessage();
+      log.warn("Batch failed after {} stored orders: {}", result.getCount(), error);
+      throw new OrderBatchException(result.setFailedAt(result.getCount()).setError(error), e);
+    }
+    return result;
+  }
+
+  private void ingestChunk(List<Orders> chunk, OrderBatchResult result) {
+    transactionTemplate.execute(status -> persist(chunk));
+    chunk.forEach(order -> result.getIds().add(order.getId()));
+    result.setCount(result.getCount() + chunk.size());
+    log.info("Ingested {} orders", chunk.size());
+  }
+
+  private List<Orders> persist(List<Orders> chunk) {
+    chunk.forEach(order -> order.setId(null));
+    persistInBatches(chunk);
+    //the orders have their ids now
+    persistInBatches(orderLineService.prepareLines(chunk));
+    verificationOutboxService.enqueueAll(chunk);
+    return chunk;
+  }
+
+  private void persistInBatches(List<?> entities) {
+    for (int i = 0; i < entities.size(); i++) {
+      entityManager.persist(entities.get(i));
+      if ((i + 1) % jdbcBatchSize == 0) {
+        entityManager.flush();
+        entityManager.clear();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,89 @@
+package com.example.demo.service;
+
+import com.example.demo.data.OrderLine;
+import com.example.demo.data.Orders;
+import com.example.demo.data.Products;
+import com.example.demo.repository.OrderLineRepository;
+import com.example.demo.repository.ProductsRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads and writes order lines for whole sets of orders at once, so neither a page of orders
+ * nor a batch of new ones costs a query per order or per product.
+ */
+@Service
+public class OrderLineService {
+
+  private final OrderLineRepository orderLineRepository;
+  private final ProductsRepository productsRepository;
+
+  public OrderLineService(OrderLineRepository orderLineRepository, ProductsRepository productsRepository) {
+    this.orderLineRepository = orderLineRepository;
+    this.productsRepository = productsRepository;
+  }
+
+  /**
+   * Sets the lines of the given orders, loaded together with their products in one query.
+   */
+  public <T extends Collection<Orders>> T attachLines(T orders) {
+    if (orders.isEmpty()) {
+      return orders;
+    }
+    Map<Long, List<OrderLine>> linesByOrder = orderLineRepository
+            .findByOrderIdInOrderById(orders.stream().map(Orders::getId).collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.groupingBy(OrderLine::getOrderId));
+    orders.forEach(order -> order.setLines(linesByOrder.getOrDefault(order.getId(), new ArrayList<>())));
+    return orders;
+  }
+
+  /**
+   * Lines of the given, already persisted, orders ready to be inserted: order id set and
+   * price defaulted to the current product price. The products are looked up in one query.
+   */
+  public List<OrderLine> prepareLines(Collection<Orders> orders) {
+    List<OrderLine> lines = new ArrayList<>();
+    for (Orders order : orders) {
+      if (order.getLines() == null) {
+        order.setLines(new ArrayList<>());
+      }
+      order.getLines().forEach(line -> lines.add(line.setId(null).setOrderId(order.getId())));
+    }
+    if (lines.isEmpty()) {
+      return lines;
+    }
+    Set<Long> productIds = lines.stream().map(OrderLine::getProductId).collect(Collectors.toSet());
+    Map<Long, Products> products = StreamSupport.stream(productsRepository.findAllById(productIds).spliterator(), false)
+            .collect(Collectors.toMap(Products::getId, Function.identity()));
+    for (OrderLine line : lines) {
+      Products product = products.get(line.getProductId());
+      if (product == null) {
+        throw new UnknownProductException("Product " + line.getProductId() + " not found");
+      }
+      line.setProduct(product);
+      if (line.getPrice() == null) {
+        line.setPrice(product.getPrice());
+      }
+    }
+    return lines;
+  }
+
+  public Orders saveLines(Orders order) {
+    orderLineRepository.saveAll(prepareLines(List.of(order)));
+    return order;
+  }
+
+  public void deleteLines(Long orderId) {
+    orderLineRepository.deleteByOrderId(orderId);
+  }
+
+}
@@ -0,0 +1,43 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes sure id range partitions of the orders table exist ahead of the id sequence, so new rows
+ * never end up in the default partition.
+ */
+@Component
+@Slf4j
+public class OrderPartitionMaintenance {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Value("${order.partition.span:10000000}")
+  long span;
+
+  @Value("${order.partition.ahead:2}")
+  int partitionsAhead;
+
+  public OrderPartitionMaintenance(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Scheduled(fixedDelayString = "${order.partition.check-interval-ms:86400000}")
+  public void createUpcomingPartitions() {
+    long lastId = jdbcTemplate.queryForObject("select last_value from orders_seq", Long.class);
+    for (int i = 0; i <= partitionsAhead; i++) {
+      long id = lastId + i * span;
+      try {
+        jdbcTemplate.queryForObject("select create_orders_partition(?, ?)::text", String.class, id, span);
+      } catch (DataAccessException e) {
+        log.warn("Could not create orders partition for id {}: {}", id, e.getMessage());
+      }
+    }
+  }
+
+}
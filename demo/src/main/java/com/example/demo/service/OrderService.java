@@ -0,0 +1,211 @@
+package com.example.demo.service;
+
+import com.example.demo.data.ClientOrderStats;
+import com.example.demo.data.ClientStatusTotal;
+import com.example.demo.data.Orders;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.repository.ReadRouting;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityNotFoundException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Slf4j
+public class OrderService {
+
+  private final OrderRepository orderRepository;
+  private final OrderLineService orderLineService;
+  private final VerificationOutboxService verificationOutboxService;
+  private final OrderCache orderCache;
+  private final VerificationNotifier verificationNotifier;
+  private final TransactionTemplate transactionTemplate;
+  private final long verifyTimeoutMillis;
+  //JDBC work of asynchronous requests, sized like the connection pool it waits on
+  private final ThreadPoolExecutor writeExecutor;
+  //read-backs of orders whose verification timed out, must not fail the request once the order exists
+  private final ThreadPoolExecutor readBackExecutor;
+
+  public OrderService(OrderRepository orderRepository,
+                      OrderLineService orderLineService,
+                      VerificationOutboxService verificationOutboxService,
+                      OrderCache orderCache,
+                      VerificationNotifier verificationNotifier,
+                      TransactionTemplate transactionTemplate,
+                      @Value("${order.write.threads:10}") int writeThreads,
+                      @Value("${order.write.queue-capacity:1000}") int writeQueueCapacity,
+                      @Value("${order.read-back.threads:2}") int readBackThreads,
+                      @Value("${order.verify.timeout-ms:15000}") long verifyTimeoutMillis) {
+    this.orderRepository = orderRepository;
+    this.orderLineService = orderLineService;
+    this.verificationOutboxService = verificationOutboxService;
+    this.orderCache = orderCache;
+    this.verificationNotifier = verificationNotifier;
+    this.transactionTemplate = transactionTemplate;
+    this.verifyTimeoutMillis = verifyTimeoutMillis;
+    this.writeExecutor = new ThreadPoolExecutor(writeThreads, writeThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(writeQueueCapacity),
+            new CustomizableThreadFactory("order-write-"),
+            (task, pool) -> {
+              throw new OrderRejectedException("Order write queue full");
+            });
+    //a full queue, or a shutdown, runs the read on the completing thread instead of dropping it
+    this.readBackExecutor = new ThreadPoolExecutor(readBackThreads, readBackThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(100),
+            new CustomizableThreadFactory("order-read-back-"),
+            (task, pool) -> task.run());
+  }
+
+  public Optional<Orders> findById(Long id) {
+    Orders cached = orderCache.get(id);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    return ReadRouting.onOneReplica(() -> {
+      Optional<Orders> order = orderRepository.findById(id)
+              .map(found -> orderLineService.attachLines(List.of(found)).get(0));
+      //from a replica too, the cache refuses rows older than what this node wrote
+      order.ifPresent(orderCache::put);
+      return order;
+    });
+  }
+
+  /**
+   * Version of the order, taken from the cache when it holds the order, from the primary otherwise:
+   * a lagging replica could confirm a version that was already replaced.
+   */
+  public Optional<Long> findVersion(Long id) {
+    Orders cached = orderCache.get(id);
+    if (cached != null) {
+      return Optional.of(cached.getVersion());
+    }
+    return ReadRouting.onPrimary(() -> orderRepository.findVersionById(id));
+  }
+
+  public String findPageFingerprint(Long after, int limit) {
+    return orderRepository.findPageFingerprint(after, limit);
+  }
+
+  public List<Orders> findPageAfter(Long after, Pageable pageable) {
+    return orderLineService.attachLines(orderRepository.findPageAfter(after, pageable));
+  }
+
+  /**
+   * Reads the per-client aggregates the database keeps up to date on every order write,
+   * so the cost does not grow with the number of orders the client has.
+   */
+  public ClientOrderStats getClientStats(String client) {
+    ClientOrderStats stats = new ClientOrderStats().setClient(client);
+    for (ClientStatusTotal total : orderRepository.findStatusTotalsByClient(client)) {
+      stats.setCount(stats.getCount() + total.getCount())
+              .setTotalPrice(stats.getTotalPrice().add(total.getTotalPrice()))
+              .getStatusCounts().put(total.getStatus(), total.getCount());
+    }
+    return stats;
+  }
+
+  @Transactional
+  public Orders create(Orders order) {
+    return saveAndEnqueue(order);
+  }
+
+  /**
+   * {@link #create} on the write executor, so the request thread is free while it waits for a connection.
+   */
+  public CompletableFuture<Orders> createAsync(Orders order) {
+    return CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> saveAndEnqueue(order)), writeExecutor);
+  }
+
+  /**
+   * Creates the order and completes once it is verified. If that takes longer than
+   * {@code order.verify.timeout-ms}, or another node verified it, completes with the order as currently stored.
+   */
+  public CompletableFuture<Orders> createAndVerify(Orders order) {
+    return createAsync(order).thenCompose(created -> {
+      CompletableFuture<Orders> verified = verificationNotifier.await(created.getId(), verifyTimeoutMillis);
+      //verification may have finished before we started waiting
+      Orders current = readCurrent(created);
+      if (isVerified(current)) {
+        verificationNotifier.verified(current);
+      }
+      //not on the write executor, its rejection would turn a created order into a 503
+      return verified.handleAsync((result, error) -> result != null ? result : readCurrent(created), readBackExecutor)
+              .thenApply(result -> result.setLines(created.getLines()));
+    });
+  }
+
+  /**
+   * The order as stored, or as created when it cannot be read. Once the order exists the request
+   * must not fail, a client retrying it would create the order again.
+   */
+  private Orders readCurrent(Orders created) {
+    try {
+      return ReadRouting.onPrimary(() -> orderRepository.findById(created.getId())).orElse(created);
+    } catch (RuntimeException e) {
+      log.warn("Could not read order {} back, answering with it as created: {}", created.getId(), e.getMessage());
+      return created;
+    }
+  }
+
+  public static boolean isVerified(Orders order) {
+    return !"not verified".equals(order.getStatus());
+  }
+
+  /**
+   * Saves the order if it still has the version it was read at. An order without a version overwrites
+   * whatever is stored, as before versions existed.
+   */
+  @Transactional
+  public Orders update(Orders order) {
+    if (order.getId() != null && order.getVersion() == null) {
+      order.setVersion(ReadRouting.onPrimary(() -> orderRepository.findVersionById(order.getId()))
+              .orElseThrow(() -> new EntityNotFoundException("Order not found")));
+    }
+    //flushed here so a version conflict surfaces as such and the returned copy has the new version
+    Orders updatedOrder = orderRepository.saveAndFlush(order);
+    //lines are not changed by an update, but the merged copy comes without them
+    orderLineService.attachLines(List.of(updatedOrder));
+    //not written through, a concurrent miss could still put the row as it was before the commit
+    orderCache.invalidateOnCompletion(updatedOrder.getId(), updatedOrder.getVersion());
+    return updatedOrder;
+  }
+
+  @Transactional
+  public void delete(Long id) {
+    orderLineService.deleteLines(id);
+    orderRepository.deleteById(id);
+    orderCache.invalidateOnCompletion(id, Long.MAX_VALUE);
+  }
+
+  public int getWriteQueueDepth() {
+    return writeExecutor.getQueue().size();
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    readBackExecutor.shutdown();
+    writeExecutor.shutdown();
+    if (!writeExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+      log.warn("Order writes still running after 10s, {} dropped", writeExecutor.shutdownNow().size());
+    }
+  }
+
+  private Orders saveAndEnqueue(Orders order) {
+    Orders persistedOrder = orderLineService.saveLines(orderRepository.save(order).setLines(order.getLines()));
+    verificationOutboxService.enqueue(persistedOrder);
+    return persistedOrder;
+  }
+
+}
@@ -0,0 +1,251 @@
+package com.example.demo.service;
+
+import com.example.demo.data.Products;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory indexes over products: by id, category, price and lower-cased name. Reads share a
+ * read lock and only walk the index that matches the query, writes update every index under the
+ * write lock. The index keeps its own copies, the products it returns must not be modified.
+ */
+public class ProductIndex {
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, Products> byId = new HashMap<>();
+  private final Map<String, Map<Long, Products>> byCategory = new HashMap<>();
+  private final TreeMap<BigDecimal, Map<Long, Products>> byPrice = new TreeMap<>();
+  private final TreeMap<String, Map<Long, Products>> byName = new TreeMap<>();
+  //last put or remove per id since the last reload, by generation
+  private final Map<Long, Write> writes = new HashMap<>();
+  private long generation;
+
+  private static final class Write {
+    private final long generation;
+    private final long version;
+
+    private Write(long generation, long version) {
+      this.generation = generation;
+      this.version = version;
+    }
+  }
+
+  public void replaceAll(Iterable<Products> products) {
+    lock.writeLock().lock();
+    try {
+      writes.clear();
+      replaceEntries(products);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the content with a snapshot loaded after {@link #generation()} returned {@code generation}.
+   * Ids put or removed since keep their current state, unless the snapshot has a newer version of them.
+   */
+  public void replaceAll(Iterable<Products> products, long generation) {
+    lock.writeLock().lock();
+    try {
+      Map<Long, Products> writtenSince = new HashMap<>();
+      writes.forEach((id, write) -> {
+        if (write.generation > generation) {
+          writtenSince.put(id, byId.get(id));
+        }
+      });
+      List<Products> merged = new ArrayList<>();
+      for (Products product : products) {
+        Products current = writtenSince.get(product.getId());
+        if (!writtenSince.containsKey(product.getId())) {
+          merged.add(product);
+        } else if (current != null && version(product) > version(current)) {
+          writtenSince.put(product.getId(), product);
+        }
+      }
+      writtenSince.values().stream().filter(Objects::nonNull).forEach(merged::add);
+      replaceEntries(merged);
+      //the snapshot covers the older writes
+      writes.values().removeIf(write -> write.generation <= generation);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Puts the product unless the index has a newer version of it or saw it removed. Returns whether it was put.
+   */
+  public boolean put(Products product) {
+    lock.writeLock().lock();
+    try {
+      Write write = writes.get(product.getId());
+      Products current = byId.get(product.getId());
+      if ((write != null && version(product) < write.version)
+              || (current != null && version(product) < version(current))) {
+        return false;
+      }
+      writes.put(product.getId(), new Write(++generation, version(product)));
+      removeEntry(product.getId());
+      add(product);
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      //no version of a removed product is put back
+      writes.put(id, new Write(++generation, Long.MAX_VALUE));
+      removeEntry(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Count of puts and removes so far.
+   */
+  public long generation() {
+    lock.readLock().lock();
+    try {
+      return generation;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public Optional<Products> get(Long id) {
+    lock.readLock().lock();
+    try {
+      return Optional.ofNullable(byId.get(id));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return byId.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Products matching all given criteria, null ones are not applied. Price bounds are inclusive,
+   * the name prefix ignores case. Ordered by name when searching by prefix, by price when searching
+   * by a price range and by id otherwise.
+   */
+  public List<Products> find(String category, BigDecimal minPrice, BigDecimal maxPrice, String namePrefix) {
+    Predicate<Products> inCategory = product -> category == null || category.equals(product.getCategory());
+    Predicate<Products> inPriceRange = product -> (minPrice == null && maxPrice == null)
+            || (product.getPrice() != null
+            && (minPrice == null || product.getPrice().compareTo(minPrice) >= 0)
+            && (maxPrice == null || product.getPrice().compareTo(maxPrice) <= 0));
+    lock.readLock().lock();
+    try {
+      Stream<Products> candidates;
+      if (namePrefix != null) {
+        String prefix = namePrefix.toLowerCase(Locale.ROOT);
+        candidates = flatten(byName.subMap(prefix, true, prefix + Character.MAX_VALUE, false));
+      } else if (category != null) {
+        candidates = byCategory.getOrDefault(category, Collections.emptyMap()).values().stream()
+                .sorted(Comparator.comparing(Products::getId));
+      } else if (minPrice != null || maxPrice != null) {
+        candidates = flatten(priceRange(minPrice, maxPrice));
+      } else {
+        candidates = byId.values().stream().sorted(Comparator.comparing(Products::getId));
+      }
+      return candidates.filter(inCategory.and(inPriceRange)).collect(Collectors.toList());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private NavigableMap<BigDecimal, Map<Long, Products>> priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+    if (minPrice == null) {
+      return byPrice.headMap(maxPrice, true);
+    }
+    if (maxPrice == null) {
+      return byPrice.tailMap(minPrice, true);
+    }
+    return minPrice.compareTo(maxPrice) > 0
+            ? Collections.emptyNavigableMap()
+            : byPrice.subMap(minPrice, true, maxPrice, true);
+  }
+
+  private static Stream<Products> flatten(SortedMap<?, Map<Long, Products>> buckets) {
+    return buckets.values().stream().flatMap(bucket -> bucket.values().stream());
+  }
+
+  private void replaceEntries(Iterable<Products> products) {
+    byId.clear();
+    byCategory.clear();
+    byPrice.clear();
+    byName.clear();
+    products.forEach(this::add);
+  }
+
+  private void add(Products source) {
+    Products product = new Products()
+            .setId(source.getId())
+            .setName(source.getName())
+            .setCategory(source.getCategory())
+            .setPrice(source.getPrice())
+            .setVersion(source.getVersion());
+    byId.put(product.getId(), product);
+    if (product.getCategory() != null) {
+      byCategory.computeIfAbsent(product.getCategory(), key -> new HashMap<>()).put(product.getId(), product);
+    }
+    if (product.getPrice() != null) {
+      //BigDecimal keys compare by value, 5 and 5.00 share a bucket
+      byPrice.computeIfAbsent(product.getPrice(), key -> new TreeMap<>()).put(product.getId(), product);
+    }
+    if (product.getName() != null) {
+      byName.computeIfAbsent(nameKey(product), key -> new TreeMap<>()).put(product.getId(), product);
+    }
+  }
+
+  private void removeEntry(Long id) {
+    Products product = byId.remove(id);
+    if (product == null) {
+      return;
+    }
+    if (product.getCategory() != null) {
+      removeFromBucket(byCategory, product.getCategory(), id);
+    }
+    if (product.getPrice() != null) {
+      removeFromBucket(byPrice, product.getPrice(), id);
+    }
+    if (product.getName() != null) {
+      removeFromBucket(byName, nameKey(product), id);
+    }
+  }
+
+  private static <K> void removeFromBucket(Map<K, Map<Long, Products>> index, K key, Long id) {
+    Map<Long, Products> bucket = index.get(key);
+    if (bucket != null) {
+      bucket.remove(id);
+      if (bucket.isEmpty()) {
+        index.remove(key);
+      }
+    }
+  }
+
+  private static long version(Products product) {
+    return product.getVersion() == null ? 0 : product.getVersion();
+  }
+
+  private static String nameKey(Products product) {
+    return product.getName().toLowerCase(Locale.ROOT);
+  }
+
+}
@@ -0,0 +1,173 @@
+package com.example.demo.service;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs status service calls with a deadline, behind a circuit breaker and, when enabled,
+ * with a hedged second attempt once the first one is slower than the recent p95.
+ * A call rejected because the local call queue is full fails with {@link VerificationRejectedException}
+ * and does not count against the circuit.
+ */
+@Component
+@Slf4j
+public class StatusCallGuard {
+
+  private final long deadlineMillis;
+  private final boolean hedgeEnabled;
+  private final long hedgeMinDelayNanos;
+  private final int hedgeMinSamples;
+
+  private final CircuitBreaker circuitBreaker;
+  private final LatencyTracker latencyTracker = new LatencyTracker(512);
+  private final ThreadPoolExecutor callExecutor;
+  private final ScheduledExecutorService hedgeScheduler;
+
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong hedged = new AtomicLong();
+  private final AtomicLong hedgeWins = new AtomicLong();
+
+  public StatusCallGuard(@Value("${status.deadline-ms:3000}") long deadlineMillis,
+                         @Value("${status.hedge.enabled:false}") boolean hedgeEnabled,
+                         @Value("${status.hedge.min-delay-ms:20}") long hedgeMinDelayMillis,
+                         @Value("${status.hedge.min-samples:20}") int hedgeMinSamples,
+                         @Value("${status.circuit.failure-threshold:5}") int failureThreshold,
+                         @Value("${status.circuit.open-ms:10000}") long openMillis,
+                         @Value("${status.call.threads:50}") int callThreads) {
+    this.deadlineMillis = deadlineMillis;
+    this.hedgeEnabled = hedgeEnabled;
+    this.hedgeMinDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedgeMinDelayMillis);
+    this.hedgeMinSamples = hedgeMinSamples;
+    this.circuitBreaker = new CircuitBreaker(failureThreshold, openMillis, TimeUnit.MILLISECONDS);
+    this.callExecutor = new ThreadPoolExecutor(callThreads, callThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(callThreads * 20), new CustomizableThreadFactory("status-call-"));
+    this.hedgeScheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("status-hedge-"));
+  }
+
+  public <R> CompletableFuture<R> call(Supplier<R> call) {
+    CompletableFuture<R> result = new CompletableFuture<>();
+    CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+    if (permit == CircuitBreaker.Permit.REJECTED) {
+      result.completeExceptionally(new CircuitOpenException("Status service circuit is open"));
+      return result;
+    }
+
+    CompletableFuture<R> first;
+    try {
+      first = attempt(call);
+    } catch (VerificationRejectedException e) {
+      //our own queue is full, that says nothing about the status service
+      circuitBreaker.release(permit);
+      result.completeExceptionally(e);
+      return result;
+    }
+    first.whenComplete((response, error) -> {
+      if (error != null) {
+        result.completeExceptionally(error);
+      } else {
+        result.complete(response);
+      }
+    });
+
+    long hedgeDelay = hedgeDelayNanos();
+    if (hedgeDelay >= 0) {
+      hedgeScheduler.schedule(() -> {
+        if (result.isDone()) {
+          return;
+        }
+        CompletableFuture<R> hedge;
+        try {
+          hedge = attempt(call);
+        } catch (VerificationRejectedException e) {
+          return;
+        }
+        hedged.incrementAndGet();
+        hedge.thenAccept(response -> {
+          if (result.complete(response)) {
+            hedgeWins.incrementAndGet();
+          }
+        });
+      }, hedgeDelay, TimeUnit.NANOSECONDS);
+    }
+
+    return result
+            .orTimeout(deadlineMillis, TimeUnit.MILLISECONDS)
+            .whenComplete((response, error) -> {
+              if (error == null) {
+                circuitBreaker.onSuccess(permit);
+                return;
+              }
+              if (error instanceof TimeoutException) {
+                timeouts.incrementAndGet();
+              }
+              circuitBreaker.onFailure(permit);
+            });
+  }
+
+  public Stats getStats() {
+    long p95 = latencyTracker.percentile(95);
+    return new Stats()
+            .setCircuitState(circuitBreaker.getState())
+            .setConsecutiveFailures(circuitBreaker.getConsecutiveFailures())
+            .setCircuitRejected(circuitBreaker.getRejected())
+            .setTimeouts(timeouts.get())
+            .setHedged(hedged.get())
+            .setHedgeWins(hedgeWins.get())
+            .setP95Millis(p95 < 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(p95));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    hedgeScheduler.shutdownNow();
+    callExecutor.shutdown();
+  }
+
+  private <R> CompletableFuture<R> attempt(Supplier<R> call) {
+    try {
+      return CompletableFuture.supplyAsync(() -> {
+        long start = System.nanoTime();
+        R response = call.get();
+        latencyTracker.record(System.nanoTime() - start);
+        return response;
+      }, callExecutor);
+    } catch (RejectedExecutionException e) {
+      throw new VerificationRejectedException("Status call queue full");
+    }
+  }
+
+  private long hedgeDelayNanos() {
+    if (!hedgeEnabled || latencyTracker.getCount() < hedgeMinSamples) {
+      return -1;
+    }
+    return Math.max(hedgeMinDelayNanos, latencyTracker.percentile(95));
+  }
+
+  @Data
+  @Accessors(chain = true)
+  public static class Stats {
+    private CircuitBreaker.State circuitState;
+    private int consecutiveFailures;
+    private long circuitRejected;
+    private long timeouts;
+    private long hedged;
+    private long hedgeWins;
+    private long p95Millis;
+  }
+
+}
@@ -0,0 +1,156 @@
+package com.example.demo.service;
+
+import com.example.demo.data.StatusRequest;
+import com.example.demo.data.StatusResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Client of the status service. With {@code status.batch.enabled} requests are micro-batched
+ * and sent to the batch endpoint, otherwise each request is posted on its own.
+ * The decision only depends on client and price, so with {@code status.cache.enabled}
+ * responses are cached per pair and concurrent identical requests share one call.
+ * Every HTTP call goes through {@link StatusCallGuard}. With {@code status.wire-format=cbor}
+ * requests and responses are sent as CBOR instead of JSON.
+ */
+@Component
+@Slf4j
+public class StatusClient {
+
+  private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+
+  private final RestTemplate restTemplate;
+  private final StatusCallGuard statusCallGuard;
+  private final String statusUrl;
+  private final String batchUrl;
+  private final MicroBatcher<StatusRequest, StatusResponse> batcher;
+  private final TtlCache<StatusKey, StatusResponse> cache;
+  private final MeterRegistry meterRegistry;
+  //content type and accept headers of every call, empty for the default JSON
+  private final HttpHeaders headers = new HttpHeaders();
+
+  public StatusClient(RestTemplate restTemplate,
+                      StatusCallGuard statusCallGuard,
+                      @Value("${status.url}") String statusUrl,
+                      @Value("${status.batch.url:${status.url}/batch}") String batchUrl,
+                      @Value("${status.batch.enabled:false}") boolean batchEnabled,
+                      @Value("${status.batch.max-size:50}") int maxBatchSize,
+                      @Value("${status.batch.max-wait-ms:20}") long maxWaitMillis,
+                      @Value("${status.batch.concurrency:2}") int concurrency,
+                      @Value("${status.cache.enabled:true}") boolean cacheEnabled,
+                      @Value("${status.cache.max-size:10000}") int cacheMaxSize,
+                      @Value("${status.cache.ttl-seconds:60}") long cacheTtlSeconds,
+                      @Value("${status.wire-format:json}") String wireFormat,
+                      MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    if ("cbor".equalsIgnoreCase(wireFormat)) {
+      headers.setContentType(CBOR);
+      headers.setAccept(List.of(CBOR));
+    } else if (!"json".equalsIgnoreCase(wireFormat)) {
+      throw new IllegalArgumentException("Unknown status.wire-format " + wireFormat + ", use json or cbor");
+    }
+    this.restTemplate = restTemplate;
+    this.statusCallGuard = statusCallGuard;
+    this.statusUrl = statusUrl;
+    this.batchUrl = batchUrl;
+    this.batcher = batchEnabled
+            ? new MicroBatcher<>("status-batch", maxBatchSize, maxWaitMillis, concurrency,
+                    requests -> timedCall("batch", () -> postBatch(requests)).join())
+            : null;
+    this.cache = cacheEnabled
+            ? new TtlCache<>(cacheMaxSize, cacheTtlSeconds, TimeUnit.SECONDS)
+            : null;
+  }
+
+  public CompletableFuture<StatusResponse> verify(StatusRequest request) {
+    if (cache != null) {
+      return cache.getOrLoad(StatusKey.of(request), key -> send(request));
+    }
+    return send(request);
+  }
+
+  public int getPendingBatchCount() {
+    return batcher == null ? 0 : batcher.getPendingCount();
+  }
+
+  public TtlCache.Stats getCacheStats() {
+    return cache == null ? new TtlCache.Stats() : cache.getStats();
+  }
+
+  @PreDestroy
+  public void close() throws InterruptedException {
+    if (batcher != null) {
+      batcher.close();
+    }
+  }
+
+  private CompletableFuture<StatusResponse> send(StatusRequest request) {
+    if (batcher != null) {
+      return batcher.submit(request);
+    }
+    return timedCall("single", () -> post(request));
+  }
+
+  //status.calls timer, tagged with how the guarded call ended
+  private <R> CompletableFuture<R> timedCall(String mode, Supplier<R> call) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    return statusCallGuard.call(call).whenComplete((response, error) ->
+            sample.stop(meterRegistry.timer("status.calls", "mode", mode, "outcome", outcome(error))));
+  }
+
+  private static String outcome(Throwable error) {
+    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    if (cause == null) {
+      return "success";
+    }
+    if (cause instanceof TimeoutException) {
+      return "timeout";
+    }
+    if (cause instanceof VerificationRejectedException) {
+      return "rejected";
+    }
+    return cause instanceof CircuitOpenException ? "circuit_open" : "error";
+  }
+
+  private StatusResponse post(StatusRequest request) {
+    return Objects.requireNonNull(
+            restTemplate.postForEntity(statusUrl, new HttpEntity<>(request, headers), StatusResponse.class).getBody());
+  }
+
+  private List<StatusResponse> postBatch(List<StatusRequest> requests) {
+    log.info("Send batch of {} orders for verification", requests.size());
+    StatusResponse[] responses = restTemplate.postForObject(batchUrl, new HttpEntity<>(requests, headers), StatusResponse[].class);
+    return Arrays.asList(Objects.requireNonNull(responses));
+  }
+
+  @Data
+  static class StatusKey {
+    private final String client;
+    private final BigDecimal price;
+
+    static StatusKey of(StatusRequest request) {
+      BigDecimal price = request.getPrice();
+      return new StatusKey(request.getClient(), price == null ? null : price.stripTrailingZeros());
+    }
+  }
+
+}
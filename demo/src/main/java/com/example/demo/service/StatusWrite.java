@@ -0,0 +1,17 @@
+package com.example.demo.service;
+
+import com.example.demo.data.Orders;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A verified status waiting to be written: the order as loaded when it was claimed, carrying the new
+ * status and the version it was verified at, and the outbox entries that are done once it is stored.
+ */
+@Data
+public class StatusWrite {
+  private final Orders order;
+  private final List<Long> entryIds = new ArrayList<>();
+}
@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import com.example.demo.data.Orders;
+import com.example.demo.data.VerificationOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers verified statuses and writes them every {@code verification.write-behind.flush-interval-ms},
+ * or as soon as {@code max-batch} orders are waiting, in one transaction per flush. Results for the same
+ * order are coalesced into one update. A result is only acknowledged once flushed; until then its
+ * outbox entry stays leased, so a crash loses nothing but the time to re-verify.
+ */
+@Component
+@Slf4j
+public class StatusWriteBehind {
+
+  private final VerificationOutboxService verificationOutboxService;
+  private final int maxBatch;
+  private final ScheduledExecutorService flusher;
+
+  private final Object lock = new Object();
+  private Map<Long, Pending> buffer = new LinkedHashMap<>();
+  private volatile boolean closed;
+
+  public StatusWriteBehind(VerificationOutboxService verificationOutboxService,
+                           @Value("${verification.write-behind.flush-interval-ms:100}") long flushIntervalMillis,
+                           @Value("${verification.write-behind.max-batch:500}") int maxBatch) {
+    this.verificationOutboxService = verificationOutboxService;
+    this.maxBatch = maxBatch;
+    this.flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("status-write-"));
+    flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Completes with {@code true} once the status is stored, or {@code false} if the order changed
+   * since it was loaded; its entry is then queued again so the current order gets verified.
+   */
+  public CompletableFuture<Boolean> submit(VerificationOutbox entry, Orders order) {
+    CompletableFuture<Boolean> written = new CompletableFuture<>();
+    boolean full;
+    synchronized (lock) {
+      Pending pending = buffer.computeIfAbsent(order.getId(), id -> new Pending());
+      pending.write = pending.write == null ? new StatusWrite(order) : copyOf(pending.write, order);
+      pending.write.getEntryIds().add(entry.getId());
+      pending.waiters.add(written);
+      full = buffer.size() >= maxBatch;
+    }
+    if (closed) {
+      flush();
+    } else if (full) {
+      flusher.execute(this::flush);
+    }
+    return written;
+  }
+
+  public int getBuffered() {
+    synchronized (lock) {
+      return buffer.size();
+    }
+  }
+
+  @PreDestroy
+  public void close() throws InterruptedException {
+    closed = true;
+    flusher.shutdown();
+    flusher.awaitTermination(10, TimeUnit.SECONDS);
+    flush();
+  }
+
+  private synchronized void flush() {
+    List<Pending> batch;
+    synchronized (lock) {
+      if (buffer.isEmpty()) {
+        return;
+      }
+      batch = new ArrayList<>(buffer.values());
+      buffer = new LinkedHashMap<>();
+    }
+    List<StatusWrite> writes = new ArrayList<>(batch.size());
+    batch.forEach(pending -> writes.add(pending.write));
+    try {
+      boolean[] written = verificationOutboxService.completeAll(writes);
+      for (int i = 0; i < batch.size(); i++) {
+        boolean stored = written[i];
+        batch.get(i).waiters.forEach(waiter -> waiter.complete(stored));
+      }
+    } catch (RuntimeException e) {
+      log.error("Writing {} verified statuses failed", writes.size(), e);
+      batch.forEach(pending -> pending.waiters.forEach(waiter -> waiter.completeExceptionally(e)));
+    }
+  }
+
+  //the newer result wins, the entries of both are done once it is written
+  private static StatusWrite copyOf(StatusWrite previous, Orders order) {
+    StatusWrite write = new StatusWrite(order);
+    write.getEntryIds().addAll(previous.getEntryIds());
+    return write;
+  }
+
+  private static class Pending {
+    private StatusWrite write;
+    private final List<CompletableFuture<Boolean>> waiters = new ArrayList<>();
+  }
+
+}
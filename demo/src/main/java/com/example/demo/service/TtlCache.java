@@ -0,0 +1,167 @@
+package com.example.demo.service;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded LRU cache whose entries expire {@code ttl} after they were written.
+ * {@link #getOrLoad} collapses concurrent loads of the same key into one call.
+ */
+public class TtlCache<K, V> {
+
+  private final int maxSize;
+  private final long ttlNanos;
+  private final LongSupplier clock;
+
+  private final Map<K, Entry<V>> entries;
+  private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  public TtlCache(int maxSize, long ttl, TimeUnit unit) {
+    this(maxSize, ttl, unit, System::nanoTime);
+  }
+
+  TtlCache(int maxSize, long ttl, TimeUnit unit, LongSupplier clock) {
+    this.maxSize = maxSize;
+    this.ttlNanos = unit.toNanos(ttl);
+    this.clock = clock;
+    this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+        if (size() > TtlCache.this.maxSize) {
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  public V get(K key) {
+    V value = peek(key);
+    if (value == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return value;
+  }
+
+  public void put(K key, V value) {
+    synchronized (entries) {
+      entries.put(key, new Entry<>(value, clock.getAsLong() + ttlNanos));
+    }
+  }
+
+  public void invalidate(K key) {
+    synchronized (entries) {
+      entries.remove(key);
+    }
+  }
+
+  public CompletableFuture<V> getOrLoad(K key, Function<K, CompletableFuture<V>> loader) {
+    V cached = get(key);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    CompletableFuture<V> result = new CompletableFuture<>();
+    CompletableFuture<V> existing = loading.putIfAbsent(key, result);
+    if (existing != null) {
+      coalesced.increment();
+      return existing;
+    }
+    CompletableFuture<V> load;
+    try {
+      load = loader.apply(key);
+    } catch (RuntimeException e) {
+      load = new CompletableFuture<>();
+      load.completeExceptionally(e);
+    }
+    load.whenComplete((value, error) -> {
+      if (error == null && value != null) {
+        put(key, value);
+      }
+      loading.remove(key, result);
+      if (error != null) {
+        result.completeExceptionally(error);
+      } else {
+        result.complete(value);
+      }
+    });
+    return result;
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public Stats getStats() {
+    long hitCount = hits.sum();
+    long missCount = misses.sum();
+    long total = hitCount + missCount;
+    return new Stats()
+            .setSize(size())
+            .setMaxSize(maxSize)
+            .setHits(hitCount)
+            .setMisses(missCount)
+            .setHitRatio(total == 0 ? 0.0 : (double) hitCount / total)
+            .setEvictions(evictions.sum())
+            .setExpirations(expirations.sum())
+            .setCoalesced(coalesced.sum());
+  }
+
+  private V peek(K key) {
+    synchronized (entries) {
+      Entry<V> entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (clock.getAsLong() - entry.expiresAt >= 0) {
+        entries.remove(key);
+        expirations.increment();
+        return null;
+      }
+      return entry.value;
+    }
+  }
+
+  private static class Entry<V> {
+    private final V value;
+    private final long expiresAt;
+
+    Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  @Data
+  @Accessors(chain = true)
+  public static class Stats {
+    private int size;
+    private int maxSize;
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long evictions;
+    private long expirations;
+    private long coalesced;
+  }
+
+}
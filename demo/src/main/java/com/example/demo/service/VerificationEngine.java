@@ -0,0 +1,159 @@
+package com.example.demo.service;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool of verification workers in front of a bounded queue. When the queue is full
+ * the configured {@link OverflowPolicy} decides what happens to the new task.
+ * A task counts as in flight until the stage it returns completes, so workers are free
+ * while a verification waits for the status service.
+ */
+@Component
+@Slf4j
+public class VerificationEngine {
+
+  public enum OverflowPolicy {
+    //fail the submission with VerificationRejectedException
+    REJECT,
+    //run the task on the submitting thread
+    CALLER_RUNS,
+    //drop the task, the order stays "not verified"
+    SHED
+  }
+
+  private final ThreadPoolExecutor executor;
+  private final OverflowPolicy overflowPolicy;
+  private final long drainTimeoutSeconds;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong shed = new AtomicLong();
+
+  public VerificationEngine(@Value("${verification.workers:0}") int workers,
+                            @Value("${verification.queue-capacity:1000}") int queueCapacity,
+                            @Value("${verification.overflow-policy:REJECT}") OverflowPolicy overflowPolicy,
+                            @Value("${verification.drain-timeout-seconds:30}") long drainTimeoutSeconds) {
+    int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+    this.overflowPolicy = overflowPolicy;
+    this.drainTimeoutSeconds = drainTimeoutSeconds;
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("verification-"),
+            overflowHandler(overflowPolicy));
+    log.info("Verification engine started with {} workers, queue capacity {}, overflow policy {}",
+            poolSize, queueCapacity, overflowPolicy);
+  }
+
+  public void submit(Runnable task) {
+    submitAsync(() -> {
+      task.run();
+      return CompletableFuture.completedFuture(null);
+    });
+  }
+
+  public void submitAsync(Supplier<? extends CompletionStage<?>> task) {
+    executor.execute(() -> {
+      inFlight.incrementAndGet();
+      CompletionStage<?> stage;
+      try {
+        stage = task.get();
+      } catch (RuntimeException e) {
+        inFlight.decrementAndGet();
+        log.error("Verification task failed", e);
+        return;
+      }
+      stage.whenComplete((result, error) -> {
+        inFlight.decrementAndGet();
+        if (error != null) {
+          log.error("Verification task failed", error);
+        }
+      });
+    });
+  }
+
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  public int getRemainingCapacity() {
+    return executor.getQueue().remainingCapacity();
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  public Stats getStats() {
+    return new Stats()
+            .setWorkers(executor.getMaximumPoolSize())
+            .setQueueDepth(getQueueDepth())
+            .setQueueRemainingCapacity(getRemainingCapacity())
+            .setInFlight(getInFlight())
+            .setCompleted(executor.getCompletedTaskCount())
+            .setRejected(rejected.get())
+            .setShed(shed.get())
+            .setOverflowPolicy(overflowPolicy);
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    log.info("Draining verification queue, {} queued and {} in flight", getQueueDepth(), getInFlight());
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainTimeoutSeconds);
+    executor.shutdown();
+    if (!executor.awaitTermination(drainTimeoutSeconds, TimeUnit.SECONDS)) {
+      List<Runnable> dropped = executor.shutdownNow();
+      log.warn("Verification queue not drained in {}s, dropped {} tasks", drainTimeoutSeconds, dropped.size());
+    }
+    while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(50);
+    }
+  }
+
+  private RejectedExecutionHandler overflowHandler(OverflowPolicy policy) {
+    switch (policy) {
+      case CALLER_RUNS:
+        return new ThreadPoolExecutor.CallerRunsPolicy();
+      case SHED:
+        return (task, pool) -> {
+          shed.incrementAndGet();
+          log.warn("Verification queue full, task shed");
+        };
+      default:
+        return (task, pool) -> {
+          rejected.incrementAndGet();
+          throw new VerificationRejectedException("Verification queue full");
+        };
+    }
+  }
+
+  @Data
+  @Accessors(chain = true)
+  public static class Stats {
+    private int workers;
+    private int queueDepth;
+    private int queueRemainingCapacity;
+    private int inFlight;
+    private long completed;
+    private long rejected;
+    private long shed;
+    private OverflowPolicy overflowPolicy;
+  }
+
+}
@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import com.example.demo.data.Orders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets requests wait for the verification of an order without holding a thread.
+ * Only verifications completed on this node are seen, callers bound the wait with a timeout
+ * and read the order again if it passes.
+ */
+@Component
+public class VerificationNotifier {
+
+  private final Map<Long, CompletableFuture<Orders>> waiting = new ConcurrentHashMap<>();
+
+  /**
+   * Completes with the verified order, or exceptionally with a {@link java.util.concurrent.TimeoutException}.
+   */
+  public CompletableFuture<Orders> await(Long orderId, long timeoutMillis) {
+    CompletableFuture<Orders> verified = waiting.computeIfAbsent(orderId, id -> new CompletableFuture<>());
+    return verified
+            .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+            .whenComplete((order, error) -> waiting.remove(orderId, verified));
+  }
+
+  public void verified(Orders order) {
+    CompletableFuture<Orders> verified = waiting.remove(order.getId());
+    if (verified != null) {
+      verified.complete(order);
+    }
+  }
+
+  //waiters must not see a status that is rolled back
+  public void verifiedOnCommit(Orders order) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      verified(order);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+      @Override
+      public void afterCommit() {
+        verified(order);
+      }
+    });
+  }
+
+  public int getWaiting() {
+    return waiting.size();
+  }
+
+}
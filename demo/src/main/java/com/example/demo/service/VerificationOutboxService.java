@@ -0,0 +1,164 @@
+package com.example.demo.service;
+
+import com.example.demo.data.Orders;
+import com.example.demo.data.VerificationOutbox;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.repository.VerificationOutboxRepository;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Durable queue of pending verifications. Entries are written in the same transaction as their
+ * order and claimed with {@code FOR UPDATE SKIP LOCKED}, so any number of nodes can poll it.
+ * A claimed entry is leased until {@code verification.outbox.lease-ms} passes; if the node dies
+ * before completing it, another node picks it up after the lease expires.
+ */
+@Service
+@Slf4j
+public class VerificationOutboxService {
+
+  private static final int MAX_ERROR_LENGTH = 255;
+
+  private final VerificationOutboxRepository verificationOutboxRepository;
+  private final OrderRepository orderRepository;
+  private final OrderCache orderCache;
+  private final VerificationNotifier verificationNotifier;
+  private final OrderEvents orderEvents;
+
+  @Value("${verification.outbox.lease-ms:60000}")
+  long leaseMillis;
+
+  @Value("${verification.outbox.backoff-ms:1000}")
+  long backoffMillis;
+
+  @Value("${verification.outbox.max-attempts:10}")
+  int maxAttempts;
+
+  public VerificationOutboxService(VerificationOutboxRepository verificationOutboxRepository,
+                                   OrderRepository orderRepository,
+                                   OrderCache orderCache,
+                                   VerificationNotifier verificationNotifier,
+                                   OrderEvents orderEvents) {
+    this.verificationOutboxRepository = verificationOutboxRepository;
+    this.orderRepository = orderRepository;
+    this.orderCache = orderCache;
+    this.verificationNotifier = verificationNotifier;
+    this.orderEvents = orderEvents;
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueue(Orders order) {
+    verificationOutboxRepository.save(entryFor(order, LocalDateTime.now()));
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueueAll(List<Orders> orders) {
+    LocalDateTime now = LocalDateTime.now();
+    verificationOutboxRepository.saveAll(orders.stream()
+            .map(order -> entryFor(order, now))
+            .collect(Collectors.toList()));
+  }
+
+  @Transactional
+  public List<VerificationOutbox> claim(int limit) {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime leaseEnd = now.plus(leaseMillis, ChronoUnit.MILLIS);
+    List<VerificationOutbox> due = verificationOutboxRepository.findDueForUpdate(now, limit);
+    due.forEach(entry -> entry.setAttempts(entry.getAttempts() + 1).setNextAttemptAt(leaseEnd));
+    return due;
+  }
+
+  /**
+   * Stores verified statuses with one batched, version-guarded update and deletes the entries of the
+   * orders that were written. Entries of orders changed since they were loaded are due again right away.
+   */
+  @Transactional
+  public boolean[] completeAll(List<StatusWrite> writes) {
+    int[] updated = orderRepository.updateStatuses(writes.stream()
+            .map(StatusWrite::getOrder)
+            .collect(Collectors.toList()));
+    boolean[] written = new boolean[writes.size()];
+    List<Long> done = new ArrayList<>();
+    List<Long> stale = new ArrayList<>();
+    for (int i = 0; i < writes.size(); i++) {
+      StatusWrite write = writes.get(i);
+      written[i] = updated[i] > 0;
+      if (!written[i]) {
+        stale.addAll(write.getEntryIds());
+        continue;
+      }
+      Orders order = write.getOrder();
+      order.setVersion(order.getVersion() + 1);
+      orderCache.invalidateOnCompletion(order.getId(), order.getVersion());
+      verificationNotifier.verifiedOnCommit(order);
+      orderEvents.publishOnCommit(order);
+      done.addAll(write.getEntryIds());
+    }
+    if (!done.isEmpty()) {
+      verificationOutboxRepository.deleteEntries(done);
+    }
+    if (!stale.isEmpty()) {
+      log.info("{} orders changed while being verified, verifying them again", stale.size());
+      verificationOutboxRepository.rescheduleAll(stale, LocalDateTime.now());
+    }
+    return written;
+  }
+
+  @Transactional
+  public void discard(VerificationOutbox entry) {
+    verificationOutboxRepository.deleteEntry(entry.getId());
+  }
+
+  @Transactional
+  public void fail(VerificationOutbox entry, Throwable error) {
+    String message = String.valueOf(error.getMessage());
+    if (message.length() > MAX_ERROR_LENGTH) {
+      message = message.substring(0, MAX_ERROR_LENGTH);
+    }
+    if (entry.getAttempts() >= maxAttempts) {
+      log.error("Giving up verification of order {} after {} attempts: {}", entry.getOrderId(), entry.getAttempts(), message);
+      verificationOutboxRepository.park(entry.getId(), message);
+      return;
+    }
+    long delay = backoffMillis << Math.min(entry.getAttempts() - 1, 10);
+    log.warn("Verification of order {} failed ({}), retrying in {} ms", entry.getOrderId(), message, delay);
+    verificationOutboxRepository.reschedule(entry.getId(), LocalDateTime.now().plus(delay, ChronoUnit.MILLIS), message);
+  }
+
+  @Transactional
+  public void release(VerificationOutbox entry) {
+    verificationOutboxRepository.reschedule(entry.getId(), LocalDateTime.now(), entry.getLastError());
+  }
+
+  public Stats getStats() {
+    return new Stats()
+            .setPending(verificationOutboxRepository.countByNextAttemptAtIsNotNull())
+            .setParked(verificationOutboxRepository.countByNextAttemptAtIsNull());
+  }
+
+  private static VerificationOutbox entryFor(Orders order, LocalDateTime now) {
+    return new VerificationOutbox()
+            .setOrderId(order.getId())
+            .setCreatedAt(now)
+            .setNextAttemptAt(now);
+  }
+
+  @Data
+  @Accessors(chain = true)
+  public static class Stats {
+    private long pending;
+    private long parked;
+  }
+
+}
@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class VerificationRejectedException extends RuntimeException {
+
+  public VerificationRejectedException(String message) {
+    super(message);
+  }
+}
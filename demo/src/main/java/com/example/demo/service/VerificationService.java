@@ -0,0 +1,141 @@
+package com.example.demo.service;
+
+import com.example.demo.data.Orders;
+import com.example.demo.data.StatusRequest;
+import com.example.demo.data.VerificationOutbox;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.repository.ReadRouting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Polls the verification outbox and hands claimed entries to the verification engine,
+ * never claiming more than the engine queue can take.
+ */
+@Service
+@Slf4j
+public class VerificationService {
+
+  private final OrderRepository orderRepository;
+  private final VerificationEngine verificationEngine;
+  private final StatusClient statusClient;
+  private final VerificationOutboxService verificationOutboxService;
+  private final StatusWriteBehind statusWriteBehind;
+  private final MeterRegistry meterRegistry;
+  private final Timer queueWait;
+  private final Timer roundTrip;
+
+  //simulated processing time before the status call, 0 disables it
+  @Value("${verification.max-delay-seconds:10}")
+  int maxDelaySeconds;
+
+  @Value("${verification.outbox.batch-size:100}")
+  int claimBatchSize;
+
+  public VerificationService(OrderRepository orderRepository,
+                             VerificationEngine verificationEngine,
+                             StatusClient statusClient,
+                             VerificationOutboxService verificationOutboxService,
+                             StatusWriteBehind statusWriteBehind,
+                             MeterRegistry meterRegistry) {
+    this.orderRepository = orderRepository;
+    this.verificationEngine = verificationEngine;
+    this.statusClient = statusClient;
+    this.verificationOutboxService = verificationOutboxService;
+    this.statusWriteBehind = statusWriteBehind;
+    this.meterRegistry = meterRegistry;
+    this.queueWait = Timer.builder("verification.queue.wait")
+            .description("Time a claimed order waits in the engine queue for a worker")
+            .register(meterRegistry);
+    this.roundTrip = Timer.builder("verification.round.trip")
+            .description("Time from handing a claimed order to the engine until its outcome is stored")
+            .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${verification.outbox.poll-interval-ms:500}")
+  public void poll() {
+    int limit = Math.min(claimBatchSize, verificationEngine.getRemainingCapacity());
+    if (limit <= 0) {
+      return;
+    }
+    List<VerificationOutbox> claimed = verificationOutboxService.claim(limit);
+    if (claimed.isEmpty()) {
+      return;
+    }
+    log.info("Claimed {} orders for verification", claimed.size());
+
+    //a lagging replica could miss new orders, whose entries would be discarded
+    Map<Long, Orders> orders = StreamSupport.stream(ReadRouting.onPrimary(() -> orderRepository.findAllById(claimed.stream()
+            .map(VerificationOutbox::getOrderId)
+            .collect(Collectors.toList()))).spliterator(), false)
+            .collect(Collectors.toMap(Orders::getId, Function.identity()));
+
+    for (VerificationOutbox entry : claimed) {
+      Orders order = orders.get(entry.getOrderId());
+      if (order == null) {
+        verificationOutboxService.discard(entry);
+        continue;
+      }
+      long queuedAt = System.nanoTime();
+      try {
+        verificationEngine.submitAsync(() -> {
+          queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+          simulateProcessingDelay();
+          return requestStatus(entry, order)
+                  .whenComplete((result, error) -> roundTrip.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS));
+        });
+      } catch (VerificationRejectedException e) {
+        verificationOutboxService.release(entry);
+      }
+    }
+  }
+
+  private CompletableFuture<Void> requestStatus(VerificationOutbox entry, Orders order) {
+    log.info("Send order for verification: {}", order);
+    return statusClient.verify(new StatusRequest().setClient(order.getClient()).setPrice(order.getPrice()))
+            .thenCompose(status -> {
+              log.info("Order verified with status: {}", status.getStatus());
+              return statusWriteBehind.submit(entry, order.setStatus(status.getStatus()))
+                      .thenAccept(written -> meterRegistry.counter("verification.outcomes",
+                              "status", written ? status.getStatus() : "stale").increment());
+            })
+            .exceptionally(error -> {
+              Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+              if (cause instanceof VerificationRejectedException) {
+                //not an attempt, the call never left this node
+                verificationOutboxService.release(entry);
+                meterRegistry.counter("verification.outcomes", "status", "rejected").increment();
+                return null;
+              }
+              verificationOutboxService.fail(entry, error);
+              meterRegistry.counter("verification.outcomes", "status", "failed").increment();
+              return null;
+            });
+  }
+
+  private void simulateProcessingDelay() {
+    if (maxDelaySeconds > 0) {
+      try {
+        TimeUnit.SECONDS.sleep(ThreadLocalRandom.current().nextInt(maxDelaySeconds));
+      } catch (InterruptedException e) {
+        log.error(e.getMessage());
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,45 @@
+create sequence orders_seq start 1 increment 50;
+create sequence verification_outbox_seq start 1 increment 50;
+
+-- partitioned by ranges of ids, which grow with time, so old orders end up in their own partitions;
+-- the partition key is the primary key, so ids stay unique and a lookup by id prunes to one partition
+create table orders (
+  id         bigint        not null,
+  number     varchar(255)  not null,
+  client     varchar(255),
+  price      numeric(19, 2),
+  status     varchar(255),
+  created_at timestamp     not null default now(),
+  primary key (id)
+) partition by range (id);
+
+create table orders_default partition of orders default;
+
+-- the partition of span ids holding the given id
+create or replace function create_orders_partition(id bigint, span bigint) returns void as $$
+declare
+  from_id bigint := id - id % span;
+begin
+  execute format('create table if not exists %I partition of orders for values from (%s) to (%s)',
+                 'orders_' || (from_id / span), from_id, from_id + span);
+end;
+$$ language plpgsql;
+
+select create_orders_partition(n * 10000000, 10000000)
+from generate_series(0, 1) as n;
+
+create table products (
+  id       bigserial primary key,
+  name     varchar(255),
+  category varchar(255),
+  price    numeric(19, 2)
+);
+
+create table verification_outbox (
+  id              bigint primary key,
+  order_id        bigint,
+  attempts        integer not null default 0,
+  next_attempt_at timestamp,
+  created_at      timestamp,
+  last_error      varchar(255)
+);
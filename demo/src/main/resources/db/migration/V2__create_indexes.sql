@@ -0,0 +1,12 @@
+-- findAllByClientAndNumber, and findAllOrdersByClient through the leading column
+create index orders_client_number_idx on orders (client, number);
+
+-- getOneOrder sorts by price
+create index orders_price_idx on orders (price desc);
+
+-- orders still waiting for verification
+create index orders_not_verified_idx on orders (id) where status = 'not verified';
+
+-- outbox polling, parked entries have no next attempt
+create index verification_outbox_due_idx on verification_outbox (next_attempt_at) where next_attempt_at is not null;
+create index verification_outbox_order_idx on verification_outbox (order_id);
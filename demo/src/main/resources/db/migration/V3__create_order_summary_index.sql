@@ -0,0 +1,2 @@
+-- keyset pages of summaries per client, covering the projected columns for index-only scans
+create index orders_client_id_idx on orders (client, id) include (number, status);
@@ -0,0 +1,43 @@
+-- per-client aggregates, one row per (client, status), kept current by a trigger on orders
+-- so every write path (jpa, batch ingest, status write-back) maintains them in its own transaction
+create table client_order_stats (
+  client      varchar(255)   not null,
+  status      varchar(255)   not null,
+  order_count bigint         not null default 0,
+  total_price numeric(19, 2) not null default 0,
+  primary key (client, status)
+);
+
+create or replace function apply_client_order_stats() returns trigger as $$
+begin
+  if tg_op = 'UPDATE'
+     and old.client is not distinct from new.client
+     and old.status is not distinct from new.status
+     and old.price is not distinct from new.price then
+    return null;
+  end if;
+  if tg_op in ('UPDATE', 'DELETE') then
+    update client_order_stats
+    set order_count = order_count - 1,
+        total_price = total_price - coalesce(old.price, 0)
+    where client = coalesce(old.client, '') and status = coalesce(old.status, '');
+  end if;
+  if tg_op in ('INSERT', 'UPDATE') then
+    insert into client_order_stats as s (client, status, order_count, total_price)
+    values (coalesce(new.client, ''), coalesce(new.status, ''), 1, coalesce(new.price, 0))
+    on conflict (client, status) do update
+      set order_count = s.order_count + 1,
+          total_price = s.total_price + excluded.total_price;
+  end if;
+  return null;
+end;
+$$ language plpgsql;
+
+create trigger orders_client_order_stats
+  after insert or update or delete on orders
+  for each row execute procedure apply_client_order_stats();
+
+insert into client_order_stats (client, status, order_count, total_price)
+select coalesce(client, ''), coalesce(status, ''), count(*), coalesce(sum(price), 0)
+from orders
+group by coalesce(client, ''), coalesce(status, '');
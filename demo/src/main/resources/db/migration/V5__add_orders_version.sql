@@ -0,0 +1,2 @@
+-- optimistic lock column, bumped by every jpa update and by the status write-back
+alter table orders add column version bigint not null default 0;
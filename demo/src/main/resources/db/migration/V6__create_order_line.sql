@@ -0,0 +1,12 @@
+create sequence order_line_seq start 1 increment 50;
+
+-- no foreign key to orders, postgres 11 cannot reference a partitioned table
+create table order_line (
+  id         bigint primary key,
+  order_id   bigint         not null,
+  product_id bigint         not null references products (id),
+  quantity   integer        not null,
+  price      numeric(19, 2)
+);
+
+create index order_line_order_id_idx on order_line (order_id);
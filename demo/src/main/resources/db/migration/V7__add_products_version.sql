@@ -0,0 +1,2 @@
+-- bumped by every jpa update, orders concurrent catalog writes in the in-memory index
+alter table products add column version bigint not null default 0;
@@ -0,0 +1,41 @@
+package com.example.demo.configuration;
+
+import com.example.demo.repository.ReadRouting;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.Cookie;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+  ReadYourWritesFilter filter = new ReadYourWritesFilter(5000, "secret".getBytes(StandardCharsets.UTF_8));
+
+  @Test
+  void pinsReadsOfAClientThatJustWrote() throws Exception {
+    MockHttpServletResponse written = new MockHttpServletResponse();
+    filter.doFilter(new MockHttpServletRequest("POST", "/order"), written, (request, response) -> { });
+    Cookie cookie = written.getCookie(ReadYourWritesFilter.COOKIE);
+
+    assertThat(readsOnPrimary(cookie)).isTrue();
+  }
+
+  @Test
+  void ignoresForgedCookies() throws Exception {
+    assertThat(readsOnPrimary(new Cookie(ReadYourWritesFilter.COOKIE, "9999999999999"))).isFalse();
+    assertThat(readsOnPrimary(new Cookie(ReadYourWritesFilter.COOKIE, "9999999999999.c2lnbmF0dXJl"))).isFalse();
+  }
+
+  private boolean readsOnPrimary(Cookie cookie) throws Exception {
+    MockHttpServletRequest read = new MockHttpServletRequest("GET", "/order/1");
+    read.setCookies(cookie);
+    AtomicBoolean primary = new AtomicBoolean();
+    filter.doFilter(read, new MockHttpServletResponse(), (request, response) -> primary.set(ReadRouting.isPinnedToPrimary()));
+    return primary.get();
+  }
+
+}
@@ -0,0 +1,90 @@
+package com.example.demo.configuration;
+
+import com.example.demo.repository.ReadRouting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+  ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(new DriverManagerDataSource(),
+          Arrays.asList(new DriverManagerDataSource(), new DriverManagerDataSource()),
+          ReplicaRoutingDataSource.Policy.ROUND_ROBIN);
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    ReadRouting.bind(null);
+  }
+
+  @Test
+  void routesWritesAndNonTransactionalWorkToPrimary() {
+    assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+  }
+
+  @Test
+  void routesReadOnlyTransactionsToReplicasInTurn() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    List<Object> keys = IntStream.range(0, 4)
+            .mapToObj(i -> dataSource.determineCurrentLookupKey())
+            .collect(Collectors.toList());
+
+    assertThat(keys).containsExactly(0, 1, 0, 1);
+  }
+
+  @Test
+  void routesPinnedReadsToPrimary() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    Object key = ReadRouting.onPrimary(dataSource::determineCurrentLookupKey);
+
+    assertThat(key).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    assertThat(dataSource.determineCurrentLookupKey()).isNotEqualTo(ReplicaRoutingDataSource.PRIMARY);
+  }
+
+  @Test
+  void keepsTheReplicaForTheWholeRoute() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    ReadRouting.bind(new ReadRouting.Route());
+
+    List<Object> keys = IntStream.range(0, 3)
+            .mapToObj(i -> dataSource.determineCurrentLookupKey())
+            .collect(Collectors.toList());
+
+    assertThat(keys).containsExactly(0, 0, 0);
+    assertThat(ReadRouting.currentRoute().isReplicaChosen()).isTrue();
+    ReadRouting.bind(new ReadRouting.Route());
+    assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(1);
+  }
+
+  @Test
+  void pinnedReadsDoNotChooseAReplica() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    ReadRouting.bind(new ReadRouting.Route());
+
+    ReadRouting.onPrimary(dataSource::determineCurrentLookupKey);
+
+    assertThat(ReadRouting.currentRoute().isReplicaChosen()).isFalse();
+  }
+
+  @Test
+  void picksLeastBusyReplicaRotatingTies() {
+    ReplicaRoutingDataSource leastConnections = new ReplicaRoutingDataSource(new DriverManagerDataSource(),
+            Arrays.asList(new DriverManagerDataSource(), new DriverManagerDataSource()),
+            ReplicaRoutingDataSource.Policy.LEAST_CONNECTIONS);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertThat(leastConnections.determineCurrentLookupKey()).isEqualTo(0);
+    assertThat(leastConnections.determineCurrentLookupKey()).isEqualTo(1);
+  }
+
+}
@@ -1,7 +1,13 @@
 package com.example.demo.controller;
 
+import com.example.demo.data.ClientOrderStats;
+import com.example.demo.data.OrderBatchResult;
+import com.example.demo.data.OrderLine;
+import com.example.demo.data.OrderSummary;
 import com.example.demo.data.Orders;
+import com.example.demo.data.Products;
 import com.example.demo.repository.OrderRepository;
+import com.example.demo.repository.ProductsRepository;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import io.restassured.http.ContentType;
 import io.restassured.specification.RequestSpecification;
@@ -15,10 +21,17 @@ import org.springframework.boot.web.server.LocalServerPort;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.persistence.EntityNotFoundException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static io.restassured.RestAssured.given;
@@ -37,6 +50,9 @@ class OrderControllerTest {
   @Autowired
   OrderRepository orderRepository;
 
+  @Autowired
+  ProductsRepository productsRepository;
+
   WireMockServer wireMockServer;
 
   @BeforeEach
@@ -71,6 +87,164 @@ class OrderControllerTest {
     assertThat(orderFromBody.getPrice()).isEqualByComparingTo(order.getPrice());
   }
 
+  @Test
+  void getPageAfterCursor() {
+    Orders first = orderRepository.save(new Orders().setClient("clientTest1").setNumber("Number").setPrice(BigDecimal.valueOf(100L)));
+    Orders second = orderRepository.save(new Orders().setClient("clientTest1").setNumber("Number").setPrice(BigDecimal.valueOf(200L)));
+
+    List<Orders> page = Arrays.asList(spec()
+            .queryParam("after", first.getId())
+            .queryParam("limit", 1)
+            .get()
+            .then()
+            .statusCode(200)
+            .extract().as(Orders[].class));
+
+    assertThat(page).hasSize(1);
+    assertThat(page.get(0).getId()).isEqualTo(second.getId());
+  }
+
+  @Test
+  void getPageWithBadLimit() {
+    spec()
+            .queryParam("limit", 0)
+            .get()
+            .then()
+            .statusCode(400);
+  }
+
+  @Test
+  void getSummariesByClient() {
+    Orders order = orderRepository.save(new Orders().setClient("clientSummary").setNumber("Number").setPrice(BigDecimal.valueOf(100L)));
+    orderRepository.save(new Orders().setClient("otherClient").setNumber("Number").setPrice(BigDecimal.valueOf(100L)));
+
+    List<OrderSummary> summaries = Arrays.asList(spec()
+            .queryParam("client", "clientSummary")
+            .get("/summary")
+            .then()
+            .statusCode(200)
+            .extract().as(OrderSummary[].class));
+
+    assertThat(summaries).extracting(OrderSummary::getClient).containsOnly("clientSummary");
+    assertThat(summaries).contains(new OrderSummary(order.getId(), "Number", "clientSummary", "not verified"));
+  }
+
+  @Test
+  void getClientStatsFollowsWrites() {
+    String client = "clientStats-" + UUID.randomUUID();
+    Orders first = orderRepository.save(new Orders().setClient(client).setNumber("Number1").setPrice(BigDecimal.valueOf(100L)));
+    orderRepository.save(new Orders().setClient(client).setNumber("Number2").setPrice(BigDecimal.valueOf(200L)));
+    orderRepository.save(first.setStatus("accepted"));
+
+    ClientOrderStats stats = spec().pathParam("client", client).get("/stats/{client}")
+            .then()
+            .statusCode(200)
+            .extract().as(ClientOrderStats.class);
+
+    assertThat(stats.getCount()).isEqualTo(2);
+    assertThat(stats.getTotalPrice()).isEqualByComparingTo(BigDecimal.valueOf(300L));
+    assertThat(stats.getStatusCounts()).containsEntry("accepted", 1L).containsEntry("not verified", 1L);
+
+    spec().pathParam("id", first.getId()).delete("/{id}").then().statusCode(204);
+
+    stats = spec().pathParam("client", client).get("/stats/{client}").then().extract().as(ClientOrderStats.class);
+    assertThat(stats.getCount()).isEqualTo(1);
+    assertThat(stats.getTotalPrice()).isEqualByComparingTo(BigDecimal.valueOf(200L));
+    assertThat(stats.getStatusCounts()).containsOnlyKeys("not verified");
+  }
+
+  @Test
+  void getOneServedFromCacheUntilUpdated() {
+    Orders order = orderRepository.save(new Orders().setClient("clientTest1").setNumber("Number").setPrice(BigDecimal.valueOf(100L)));
+
+    spec().pathParam("id", order.getId()).get("/{id}").then().statusCode(200);
+    long hits = spec().get("/cache/stats").then().statusCode(200).extract().jsonPath().getLong("hits");
+    spec().pathParam("id", order.getId()).get("/{id}").then().statusCode(200);
+
+    assertThat(spec().get("/cache/stats").then().extract().jsonPath().getLong("hits")).isEqualTo(hits + 1);
+
+    spec()
+            .contentType(ContentType.JSON)
+            .body(order.setNumber("NumberUpdated"))
+            .put()
+            .then()
+            .statusCode(200);
+
+    Orders orderFromBody = spec().pathParam("id", order.getId()).get("/{id}").then().statusCode(200).extract().as(Orders.class);
+    assertThat(orderFromBody.getNumber()).isEqualTo("NumberUpdated");
+  }
+
+  @Test
+  void getOneAnswers304UntilVersionChanges() {
+    Orders order = orderRepository.save(new Orders().setClient("clientTest1").setNumber("Number").setPrice(BigDecimal.valueOf(100L)));
+
+    String eTag = spec().get("/{id}", order.getId()).then().statusCode(200).extract().header("ETag");
+    assertThat(eTag).isNotBlank();
+
+    spec().header("If-None-Match", eTag).get("/{id}", order.getId()).then().statusCode(304);
+
+    spec()
+            .contentType(ContentType.JSON)
+            .body(order.setNumber("NumberUpdated"))
+            .put()
+            .then()
+            .statusCode(200);
+
+    String updatedETag = spec().header("If-None-Match", eTag).get("/{id}", order.getId())
+            .then().statusCode(200).extract().header("ETag");
+    assertThat(updatedETag).isNotEqualTo(eTag);
+  }
+
+  @Test
+  void getPageAnswers304UntilAnOrderChanges() {
+    Orders first = orderRepository.save(new Orders().setClient("clientTest1").setNumber("Number").setPrice(BigDecimal.valueOf(100L)));
+    Orders second = orderRepository.save(new Orders().setClient("clientTest1").setNumber("Number").setPrice(BigDecimal.valueOf(200L)));
+    long after = first.getId() - 1;
+
+    String eTag = spec().queryParam("after", after).queryParam("limit", 2).get().then().statusCode(200).extract().header("ETag");
+
+    spec().header("If-None-Match", eTag).queryParam("after", after).queryParam("limit", 2).get().then().statusCode(304);
+
+    orderRepository.save(second.setStatus("accepted"));
+
+    spec().header("If-None-Match", eTag).queryParam("after", after).queryParam("limit", 2).get().then().statusCode(200);
+  }
+
+  @Test
+  void compressesLargeLists() {
+    Orders first = orderRepository.save(new Orders().setClient("clientTest1").setNumber("Number").setPrice(BigDecimal.valueOf(100L)));
+    for (int i = 0; i < 30; i++) {
+      orderRepository.save(new Orders().setClient("clientTest1").setNumber("Number").setPrice(BigDecimal.valueOf(100L)));
+    }
+
+    spec()
+            .header("Accept-Encoding", "gzip")
+            .queryParam("after", first.getId() - 1)
+            .queryParam("limit", 31)
+            .get()
+            .then()
+            .statusCode(200)
+            .header("Content-Encoding", "gzip");
+  }
+
+  @Test
+  void prometheusExposesRequestAndRepositoryTimers() {
+    Orders order = orderRepository.save(new Orders().setClient("clientTest1").setNumber("Number").setPrice(BigDecimal.valueOf(100L)));
+    spec().pathParam("id", order.getId()).get("/{id}").then().statusCode(200);
+
+    String metrics = given()
+            .port(port)
+            .get("/actuator/prometheus")
+            .then()
+            .statusCode(200)
+            .extract().asString();
+
+    assertThat(metrics)
+            .containsPattern("http_server_requests_seconds_count\\{.*uri=\"/order/\\{id}\"")
+            .containsPattern("repository_invocations_seconds_count\\{.*method=\"save\",repository=\"orderRepository\",?} [1-9]")
+            .contains("verification_queue_depth");
+  }
+
   @Test
   void deleteOne() {
     Orders order = orderRepository.save(new Orders().setClient("clientTest1").setNumber("Number").setPrice(BigDecimal.valueOf(100L)));
@@ -115,6 +289,92 @@ class OrderControllerTest {
     assertThat(ordersOptional.get().getPrice()).isEqualByComparingTo(order.getPrice());
   }
 
+  @Test
+  void insertWithLinesAndGetOneWithProducts() {
+    Products product = productsRepository.save(new Products().setName("Pen").setCategory("office").setPrice(BigDecimal.valueOf(5L)));
+    Orders order = spec()
+            .contentType(ContentType.JSON)
+            .body(new Orders().setClient("clientLines").setNumber("Number").setPrice(BigDecimal.valueOf(10L))
+                    .setLines(List.of(new OrderLine().setProductId(product.getId()).setQuantity(2))))
+            .post()
+            .then()
+            .statusCode(201)
+            .extract().as(Orders.class);
+
+    Orders found = spec().get("/{id}", order.getId()).then().statusCode(200).extract().as(Orders.class);
+
+    assertThat(found.getLines()).hasSize(1);
+    assertThat(found.getLines().get(0).getQuantity()).isEqualTo(2);
+    assertThat(found.getLines().get(0).getPrice()).isEqualByComparingTo(product.getPrice());
+    assertThat(found.getLines().get(0).getProduct().getName()).isEqualTo("Pen");
+  }
+
+  @Test
+  void insertWithUnknownProductReturns400() {
+    spec()
+            .contentType(ContentType.JSON)
+            .body(new Orders().setClient("clientLines").setNumber("Number").setPrice(BigDecimal.valueOf(10L))
+                    .setLines(List.of(new OrderLine().setProductId(-1L))))
+            .post()
+            .then()
+            .statusCode(400);
+  }
+
+  @Test
+  void insertBatch() {
+    OrderBatchResult result = spec()
+            .contentType(ContentType.JSON)
+            .body(Arrays.asList(
+                    new Orders().setClient("clientBatch").setNumber("Number1").setPrice(BigDecimal.valueOf(100L)),
+                    new Orders().setClient("clientBatch").setNumber("Number2").setPrice(BigDecimal.valueOf(200L))))
+            .post("/batch")
+            .then()
+            .statusCode(201)
+            .extract().as(OrderBatchResult.class);
+
+    assertThat(result.getCount()).isEqualTo(2);
+    assertThat(orderRepository.findAllById(result.getIds())).extracting(Orders::getNumber)
+            .containsExactlyInAnyOrder("Number1", "Number2");
+  }
+
+  @Test
+  void insertBatchAsNdjson() {
+    OrderBatchResult result = spec()
+            .contentType("application/x-ndjson")
+            .body("{\"client\":\"clientBatch\",\"number\":\"Number1\",\"price\":100}\n"
+                    + "{\"client\":\"clientBatch\",\"number\":\"Number2\",\"price\":200}\n")
+            .post("/batch")
+            .then()
+            .statusCode(201)
+            .extract().as(OrderBatchResult.class);
+
+    assertThat(result.getCount()).isEqualTo(2);
+    assertThat(orderRepository.findAllById(result.getIds())).hasSize(2);
+  }
+
+  @Test
+  void insertBatchWithBadOrderInSecondChunkReturnsStoredIds() {
+    StringBuilder body = new StringBuilder();
+    //the default chunk is 500 orders, the bad one is the 502nd
+    for (int i = 0; i < 501; i++) {
+      body.append("{\"client\":\"clientBatchChunks\",\"number\":\"Number").append(i).append("\",\"price\":100}\n");
+    }
+    body.append("{\"client\":\"clientBatchChunks\",\"number\":\"Bad\",\"price\":\"abc\"}\n");
+
+    OrderBatchResult result = spec()
+            .contentType("application/x-ndjson")
+            .body(body.toString())
+            .post("/batch")
+            .then()
+            .statusCode(400)
+            .extract().as(OrderBatchResult.class);
+
+    assertThat(result.getCount()).isEqualTo(500);
+    assertThat(result.getFailedAt()).isEqualTo(500);
+    assertThat(result.getError()).isNotBlank();
+    assertThat(orderRepository.findAllById(result.getIds())).hasSize(500);
+  }
+
   @Test
   void whenPutOrderShouldReturn200AndUpdatedBody() {
     Orders orderRequest = orderRepository.save(new Orders().setClient("clientTest1").setNumber("Number").setPrice(BigDecimal.valueOf(100L)));
@@ -132,8 +392,24 @@ class OrderControllerTest {
               .statusCode(200)
               .extract().as(Orders.class);
 
-    assertThat(orderRequest).isEqualToIgnoringGivenFields(orderResponse,"price");
+    assertThat(orderRequest).isEqualToIgnoringGivenFields(orderResponse,"price", "version");
     assertThat(orderRequest.getPrice()).isEqualByComparingTo(orderResponse.getPrice());
+    assertThat(orderResponse.getVersion()).isEqualTo(orderRequest.getVersion() + 1);
+  }
+
+  @Test
+  void putWithStaleVersionReturns409() {
+    Orders order = orderRepository.save(new Orders().setClient("clientTest1").setNumber("Number").setPrice(BigDecimal.valueOf(100L)));
+    orderRepository.save(order.setNumber("ChangedElsewhere"));
+
+    spec()
+            .contentType(ContentType.JSON)
+            .body(order.setNumber("NumberUpdated").setVersion(0L))
+            .put()
+            .then()
+            .statusCode(409);
+
+    assertThat(orderRepository.findById(order.getId()).get().getNumber()).isEqualTo("ChangedElsewhere");
   }
 
   @Test
@@ -185,7 +461,7 @@ class OrderControllerTest {
     await().atMost(12, SECONDS).untilAsserted(
             () -> {
               Optional<Orders> ordersOptional = orderRepository.findById(order.getId());
-              assertThat(ordersOptional.get()).isEqualToIgnoringGivenFields(order,"price", "status");
+              assertThat(ordersOptional.get()).isEqualToIgnoringGivenFields(order,"price", "status", "version");
               assertThat(ordersOptional.get().getStatus()).isEqualTo("rejected");
               assertThat(ordersOptional.get().getPrice()).isEqualByComparingTo(order.getPrice());
             }
@@ -217,12 +493,72 @@ class OrderControllerTest {
     Thread.sleep(12000);
 
     ordersOptional = orderRepository.findById(order.getId());
-    assertThat(ordersOptional.get()).isEqualToIgnoringGivenFields(order,"price", "status");
+    assertThat(ordersOptional.get()).isEqualToIgnoringGivenFields(order,"price", "status", "version");
     assertThat(ordersOptional.get().getStatus()).isEqualTo("accepted");
     assertThat(ordersOptional.get().getPrice()).isEqualByComparingTo(order.getPrice());
 
   }
 
+  @Test
+  void eventsStreamPushesStatusChange() throws IOException {
+
+    wireMockServer.stubFor(
+            post(urlEqualTo("/status"))
+                    .willReturn(
+                            aResponse().withBody("{\"status\":\"accepted\"}").withStatus(200).withHeader("content-type","application/json")
+                    )
+    );
+
+    String client = "clientEvents" + UUID.randomUUID();
+    HttpURLConnection events = (HttpURLConnection) new URL("http://localhost:" + port + "/order/events?client=" + client).openConnection();
+    events.setReadTimeout(15000);
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(events.getInputStream(), StandardCharsets.UTF_8))) {
+      assertThat(events.getContentType()).startsWith("text/event-stream");
+
+      Orders order = spec()
+              .contentType(ContentType.JSON)
+              .body(new Orders().setClient(client).setNumber("Number").setPrice(BigDecimal.valueOf(100L)))
+              .post()
+              .then()
+              .statusCode(201)
+              .extract().as(Orders.class);
+
+      String line;
+      do {
+        line = reader.readLine();
+      } while (line != null && !line.startsWith("data:"));
+
+      assertThat(line)
+              .contains("\"id\":" + order.getId())
+              .contains("\"status\":\"accepted\"");
+    } finally {
+      events.disconnect();
+    }
+  }
+
+  @Test
+  void insertWithSyncVerifyReturnsVerifiedOrder() {
+
+    wireMockServer.stubFor(
+            post(urlEqualTo("/status"))
+                    .willReturn(
+                            aResponse().withBody("{\"status\":\"accepted\"}").withStatus(200).withHeader("content-type","application/json")
+                    )
+    );
+
+    Orders order = spec()
+            .contentType(ContentType.JSON)
+            .queryParam("verify", "sync")
+            .body(new Orders().setClient("clientSync").setNumber("Number").setPrice(BigDecimal.valueOf(100L)))
+            .post()
+            .then()
+            .statusCode(201)
+            .extract().as(Orders.class);
+
+    assertThat(order.getStatus()).isEqualTo("accepted");
+    assertThat(orderRepository.findById(order.getId()).get().getStatus()).isEqualTo("accepted");
+  }
+
   private RequestSpecification spec(){
     return given()
             .port(port)
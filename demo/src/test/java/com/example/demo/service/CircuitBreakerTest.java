@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+  AtomicLong now = new AtomicLong();
+
+  CircuitBreaker circuitBreaker = new CircuitBreaker(2, 1, TimeUnit.SECONDS, now::get);
+
+  @Test
+  void opensAfterConsecutiveFailures() {
+    circuitBreaker.onFailure(CircuitBreaker.Permit.CALL);
+    assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.CALL);
+
+    circuitBreaker.onFailure(CircuitBreaker.Permit.CALL);
+
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.REJECTED);
+    assertThat(circuitBreaker.getRejected()).isEqualTo(1);
+  }
+
+  @Test
+  void successResetsFailureCount() {
+    circuitBreaker.onFailure(CircuitBreaker.Permit.CALL);
+    circuitBreaker.onSuccess(CircuitBreaker.Permit.CALL);
+    circuitBreaker.onFailure(CircuitBreaker.Permit.CALL);
+
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+  }
+
+  @Test
+  void letsSingleProbeThroughAfterOpenDuration() {
+    open();
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+    assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.PROBE);
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.REJECTED);
+
+    circuitBreaker.onSuccess(CircuitBreaker.Permit.PROBE);
+
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.CALL);
+  }
+
+  @Test
+  void failedProbeOpensCircuitAgain() {
+    open();
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    CircuitBreaker.Permit probe = circuitBreaker.tryAcquire();
+
+    circuitBreaker.onFailure(probe);
+
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.REJECTED);
+  }
+
+  @Test
+  void callsAcquiredBeforeOpeningDoNotDecide() {
+    CircuitBreaker.Permit slow = circuitBreaker.tryAcquire();
+    open();
+
+    circuitBreaker.onSuccess(slow);
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.PROBE);
+    circuitBreaker.onFailure(slow);
+    circuitBreaker.release(slow);
+
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.REJECTED);
+  }
+
+  private void open() {
+    circuitBreaker.onFailure(CircuitBreaker.Permit.CALL);
+    circuitBreaker.onFailure(CircuitBreaker.Permit.CALL);
+  }
+
+}
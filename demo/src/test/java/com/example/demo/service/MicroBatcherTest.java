@@ -0,0 +1,78 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MicroBatcherTest {
+
+  List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+  MicroBatcher<Integer, String> batcher;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    batcher.close();
+  }
+
+  @Test
+  void flushesWhenBatchIsFull() throws Exception {
+    batcher = new MicroBatcher<>("test", 3, 10_000, 1, this::handle);
+
+    CompletableFuture<String> first = batcher.submit(1);
+    CompletableFuture<String> second = batcher.submit(2);
+    CompletableFuture<String> third = batcher.submit(3);
+
+    assertThat(third.get(1, TimeUnit.SECONDS)).isEqualTo("3");
+    assertThat(first.get()).isEqualTo("1");
+    assertThat(second.get()).isEqualTo("2");
+    assertThat(batchSizes).containsExactly(3);
+  }
+
+  @Test
+  void flushesPartialBatchAfterMaxWait() throws Exception {
+    batcher = new MicroBatcher<>("test", 100, 50, 1, this::handle);
+
+    CompletableFuture<String> only = batcher.submit(7);
+
+    assertThat(only.get(1, TimeUnit.SECONDS)).isEqualTo("7");
+    assertThat(batchSizes).containsExactly(1);
+  }
+
+  @Test
+  void failsWholeBatchWhenHandlerFails() {
+    batcher = new MicroBatcher<>("test", 2, 10_000, 1, items -> {
+      throw new IllegalStateException("status service down");
+    });
+
+    CompletableFuture<String> first = batcher.submit(1);
+    CompletableFuture<String> second = batcher.submit(2);
+
+    assertThatThrownBy(() -> first.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> second.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void flushesPendingItemsOnClose() throws Exception {
+    batcher = new MicroBatcher<>("test", 100, 10_000, 1, this::handle);
+
+    CompletableFuture<String> pending = batcher.submit(5);
+    batcher.close();
+
+    assertThat(pending.get(1, TimeUnit.SECONDS)).isEqualTo("5");
+  }
+
+  private List<String> handle(List<Integer> items) {
+    batchSizes.add(items.size());
+    return items.stream().map(String::valueOf).collect(Collectors.toList());
+  }
+
+}
@@ -0,0 +1,31 @@
+package com.example.demo.service;
+
+import com.example.demo.data.Orders;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderCacheTest {
+
+  OrderCache cache = new OrderCache(10, 60);
+
+  @Test
+  void refusesVersionsOlderThanTheLastWrite() {
+    cache.put(new Orders().setId(1L).setVersion(1L));
+    cache.invalidateOnCompletion(1L, 2L);
+
+    assertThat(cache.get(1L)).isNull();
+    //read before the commit, or from a lagging replica
+    assertThat(cache.put(new Orders().setId(1L).setVersion(1L))).isFalse();
+    assertThat(cache.put(new Orders().setId(1L).setVersion(2L))).isTrue();
+    assertThat(cache.get(1L).getVersion()).isEqualTo(2L);
+  }
+
+  @Test
+  void neverCachesDeletedOrders() {
+    cache.invalidateOnCompletion(1L, Long.MAX_VALUE);
+
+    assertThat(cache.put(new Orders().setId(1L).setVersion(5L))).isFalse();
+  }
+
+}
@@ -0,0 +1,109 @@
+package com.example.demo.service;
+
+import com.example.demo.data.Products;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductIndexTest {
+
+  ProductIndex index = new ProductIndex();
+
+  @BeforeEach
+  void setup() {
+    index.replaceAll(Arrays.asList(
+            product(1L, "Pencil", "office", 2),
+            product(2L, "pen", "office", 5),
+            product(3L, "Paper", "office", 10),
+            product(4L, "Penguin plush", "toys", 25),
+            product(5L, "Stapler", "office", new BigDecimal("5.00"))));
+  }
+
+  @Test
+  void findsByCategory() {
+    assertThat(index.find("office", null, null, null)).extracting(Products::getId)
+            .containsExactly(1L, 2L, 3L, 5L);
+    assertThat(index.find("garden", null, null, null)).isEmpty();
+  }
+
+  @Test
+  void findsByInclusivePriceRangeOrderedByPrice() {
+    assertThat(index.find(null, BigDecimal.valueOf(5), BigDecimal.valueOf(10), null)).extracting(Products::getId)
+            .containsExactly(2L, 5L, 3L);
+    assertThat(index.find(null, null, BigDecimal.valueOf(2), null)).extracting(Products::getId)
+            .containsExactly(1L);
+    assertThat(index.find(null, BigDecimal.valueOf(10), BigDecimal.valueOf(5), null)).isEmpty();
+  }
+
+  @Test
+  void findsByNamePrefixIgnoringCase() {
+    assertThat(index.find(null, null, null, "PEN")).extracting(Products::getId)
+            .containsExactly(2L, 1L, 4L);
+  }
+
+  @Test
+  void combinesCriteria() {
+    assertThat(index.find("office", null, BigDecimal.valueOf(4), "pen")).extracting(Products::getId)
+            .containsExactly(1L);
+  }
+
+  @Test
+  void updatesMoveProductsBetweenBuckets() {
+    index.put(product(2L, "Marker", "art", 7));
+    index.remove(3L);
+
+    assertThat(index.find("office", null, null, null)).extracting(Products::getId).containsExactly(1L, 5L);
+    assertThat(index.find(null, null, null, "pen")).extracting(Products::getId).containsExactly(1L, 4L);
+    assertThat(index.find(null, BigDecimal.valueOf(6), BigDecimal.valueOf(10), null)).extracting(Products::getId)
+            .containsExactly(2L);
+    assertThat(index.size()).isEqualTo(4);
+  }
+
+  @Test
+  void keepsItsOwnCopies() {
+    Products product = product(6L, "Glue", "office", 3);
+    index.put(product);
+    product.setCategory("toys");
+
+    assertThat(index.get(6L)).get().extracting(Products::getCategory).isEqualTo("office");
+  }
+
+  @Test
+  void mergesSnapshotKeepingWritesMadeWhileItLoaded() {
+    long generation = index.generation();
+    index.put(product(6L, "Glue", "office", 3));
+    index.remove(3L);
+
+    //loaded before both writes, with a change made elsewhere to product 1
+    index.replaceAll(Arrays.asList(
+            product(1L, "Pencil HB", "office", 2),
+            product(2L, "pen", "office", 5),
+            product(3L, "Paper", "office", 10)), generation);
+
+    assertThat(index.find(null, null, null, null)).extracting(Products::getId).containsExactly(1L, 2L, 6L);
+    assertThat(index.get(1L)).get().extracting(Products::getName).isEqualTo("Pencil HB");
+  }
+
+  @Test
+  void keepsTheHighestVersion() {
+    assertThat(index.put(product(2L, "Pen", "office", 5).setVersion(2L))).isTrue();
+    assertThat(index.put(product(2L, "pen", "office", 5).setVersion(1L))).isFalse();
+    index.remove(2L);
+
+    assertThat(index.put(product(2L, "Pen", "office", 5).setVersion(3L))).isFalse();
+    assertThat(index.get(2L)).isEmpty();
+  }
+
+  private static Products product(Long id, String name, String category, long price) {
+    return product(id, name, category, BigDecimal.valueOf(price));
+  }
+
+  private static Products product(Long id, String name, String category, BigDecimal price) {
+    return new Products().setId(id).setName(name).setCategory(category).setPrice(price);
+  }
+
+}
@@ -0,0 +1,132 @@
+package com.example.demo.service;
+
+import com.example.demo.data.StatusRequest;
+import com.example.demo.data.StatusResponse;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatusCallGuardTest {
+
+  WireMockServer wireMockServer;
+
+  RestTemplate restTemplate = new RestTemplate();
+
+  StatusCallGuard guard;
+
+  @BeforeEach
+  void setup() {
+    //serves the stubs from the project mappings directory
+    wireMockServer = new WireMockServer(options().dynamicPort().usingFilesUnderDirectory(".."));
+    wireMockServer.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    guard.shutdown();
+    wireMockServer.stop();
+  }
+
+  @Test
+  void returnsResponsesFromMappings() throws Exception {
+    guard = new StatusCallGuard(1000, false, 20, 20, 5, 1000, 2);
+
+    assertThat(guard.call(() -> callStatus("client")).get().getStatus()).isEqualTo("accepted");
+    assertThat(guard.call(() -> callStatus("janusz")).get().getStatus()).isEqualTo("rejected");
+  }
+
+  @Test
+  void failsCallAfterDeadline() {
+    guard = new StatusCallGuard(100, false, 20, 20, 5, 1000, 2);
+    wireMockServer.stubFor(post(urlEqualTo("/status"))
+            .willReturn(acceptedResponse().withFixedDelay(1000)));
+
+    assertThatThrownBy(() -> guard.call(() -> callStatus("client")).get(2, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(TimeoutException.class);
+    assertThat(guard.getStats().getTimeouts()).isEqualTo(1);
+  }
+
+  @Test
+  void failsFastWhenCircuitIsOpen() {
+    guard = new StatusCallGuard(1000, false, 20, 20, 2, 60_000, 2);
+    wireMockServer.stubFor(post(urlEqualTo("/status")).willReturn(serverError()));
+
+    for (int i = 0; i < 2; i++) {
+      assertThatThrownBy(() -> guard.call(() -> callStatus("client")).get(2, TimeUnit.SECONDS));
+    }
+
+    assertThatThrownBy(() -> guard.call(() -> callStatus("client")).get(2, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(CircuitOpenException.class);
+    wireMockServer.verify(2, postRequestedFor(urlEqualTo("/status")));
+    assertThat(guard.getStats().getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+  }
+
+  @Test
+  void fullCallQueueRejectsWithoutOpeningCircuit() {
+    guard = new StatusCallGuard(60_000, false, 20, 20, 2, 60_000, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    //one running, twenty queued
+    for (int i = 0; i < 21; i++) {
+      guard.call(() -> {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return new StatusResponse().setStatus("accepted");
+      });
+    }
+
+    for (int i = 0; i < 3; i++) {
+      assertThatThrownBy(() -> guard.call(() -> callStatus("client")).get(2, TimeUnit.SECONDS))
+              .hasCauseInstanceOf(VerificationRejectedException.class);
+    }
+    release.countDown();
+
+    assertThat(guard.getStats().getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    assertThat(guard.getStats().getConsecutiveFailures()).isZero();
+  }
+
+  @Test
+  void hedgedAttemptAnswersSlowCall() throws Exception {
+    guard = new StatusCallGuard(1000, true, 50, 0, 5, 1000, 2);
+    wireMockServer.stubFor(post(urlEqualTo("/status")).inScenario("slow first")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(acceptedResponse().withFixedDelay(3000))
+            .willSetStateTo("fast"));
+    wireMockServer.stubFor(post(urlEqualTo("/status")).inScenario("slow first")
+            .whenScenarioStateIs("fast")
+            .willReturn(acceptedResponse()));
+
+    StatusResponse response = guard.call(() -> callStatus("client")).get(2, TimeUnit.SECONDS);
+
+    assertThat(response.getStatus()).isEqualTo("accepted");
+    assertThat(guard.getStats().getHedged()).isEqualTo(1);
+    assertThat(guard.getStats().getHedgeWins()).isEqualTo(1);
+  }
+
+  private StatusResponse callStatus(String client) {
+    return restTemplate.postForObject("http://localhost:" + wireMockServer.port() + "/status",
+            new StatusRequest().setClient(client).setPrice(BigDecimal.valueOf(100L)),
+            StatusResponse.class);
+  }
+
+  private static ResponseDefinitionBuilder acceptedResponse() {
+    return aResponse().withBody("{\"status\":\"accepted\"}").withStatus(200).withHeader("content-type", "application/json");
+  }
+
+}
@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import com.example.demo.data.StatusRequest;
+import com.example.demo.data.StatusResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encoded sizes of the StatusWireFormatBenchmark payloads, as listed in the readme.
+ */
+class StatusWireFormatSizeTest {
+
+  private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+  private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+  @Test
+  void request() throws IOException {
+    StatusRequest request = new StatusRequest().setClient("client").setPrice(new BigDecimal("1234.56"));
+
+    assertThat(json.writeValueAsBytes(request)).hasSize(35);
+    assertThat(cbor.writeValueAsBytes(request)).hasSize(30);
+  }
+
+  @Test
+  void response() throws IOException {
+    StatusResponse response = new StatusResponse().setStatus("accepted");
+
+    assertThat(json.writeValueAsBytes(response)).hasSize(21);
+    assertThat(cbor.writeValueAsBytes(response)).hasSize(18);
+  }
+
+  @Test
+  void batchOf50() throws IOException {
+    List<StatusRequest> batch = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      batch.add(new StatusRequest().setClient("client" + i).setPrice(BigDecimal.valueOf(100_00 + i, 2)));
+    }
+
+    assertThat(json.writeValueAsBytes(batch)).hasSize(1841);
+    assertThat(cbor.writeValueAsBytes(batch)).hasSize(1492);
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TtlCacheTest {
+
+  AtomicLong now = new AtomicLong();
+
+  @Test
+  void countsHitsAndMisses() {
+    TtlCache<String, String> cache = new TtlCache<>(10, 1, TimeUnit.SECONDS, now::get);
+
+    assertThat(cache.get("a")).isNull();
+    cache.put("a", "1");
+    assertThat(cache.get("a")).isEqualTo("1");
+
+    assertThat(cache.getStats().getHits()).isEqualTo(1);
+    assertThat(cache.getStats().getMisses()).isEqualTo(1);
+    assertThat(cache.getStats().getHitRatio()).isEqualTo(0.5);
+  }
+
+  @Test
+  void expiresEntriesAfterTtl() {
+    TtlCache<String, String> cache = new TtlCache<>(10, 1, TimeUnit.SECONDS, now::get);
+    cache.put("a", "1");
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+    assertThat(cache.get("a")).isNull();
+    assertThat(cache.getStats().getExpirations()).isEqualTo(1);
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedEntryAboveMaxSize() {
+    TtlCache<String, String> cache = new TtlCache<>(2, 1, TimeUnit.SECONDS, now::get);
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.get("a");
+
+    cache.put("c", "3");
+
+    assertThat(cache.get("b")).isNull();
+    assertThat(cache.get("a")).isEqualTo("1");
+    assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+  }
+
+  @Test
+  void coalescesConcurrentLoadsOfSameKey() throws Exception {
+    TtlCache<String, String> cache = new TtlCache<>(10, 1, TimeUnit.SECONDS, now::get);
+    AtomicInteger loads = new AtomicInteger();
+    CompletableFuture<String> response = new CompletableFuture<>();
+
+    CompletableFuture<String> first = cache.getOrLoad("a", key -> {
+      loads.incrementAndGet();
+      return response;
+    });
+    CompletableFuture<String> second = cache.getOrLoad("a", key -> {
+      loads.incrementAndGet();
+      return response;
+    });
+    response.complete("1");
+
+    assertThat(first.get()).isEqualTo("1");
+    assertThat(second.get()).isEqualTo("1");
+    assertThat(loads).hasValue(1);
+    assertThat(cache.getStats().getCoalesced()).isEqualTo(1);
+    assertThat(cache.get("a")).isEqualTo("1");
+  }
+
+  @Test
+  void doesNotCacheFailedLoads() {
+    TtlCache<String, String> cache = new TtlCache<>(10, 1, TimeUnit.SECONDS, now::get);
+    CompletableFuture<String> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException());
+
+    assertThat(cache.getOrLoad("a", key -> failed)).isCompletedExceptionally();
+    assertThat(cache.get("a")).isNull();
+  }
+
+}
@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VerificationEngineTest {
+
+  CountDownLatch release = new CountDownLatch(1);
+
+  VerificationEngine engine;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    release.countDown();
+    engine.shutdown();
+  }
+
+  @Test
+  void rejectsWhenQueueIsFull() throws InterruptedException {
+    engine = new VerificationEngine(1, 1, VerificationEngine.OverflowPolicy.REJECT, 5);
+    fillWorkerAndQueue();
+
+    assertThatThrownBy(() -> engine.submit(() -> {})).isInstanceOf(VerificationRejectedException.class);
+    assertThat(engine.getStats().getRejected()).isEqualTo(1);
+  }
+
+  @Test
+  void shedsWhenQueueIsFull() throws InterruptedException {
+    engine = new VerificationEngine(1, 1, VerificationEngine.OverflowPolicy.SHED, 5);
+    fillWorkerAndQueue();
+
+    engine.submit(() -> {});
+
+    assertThat(engine.getStats().getShed()).isEqualTo(1);
+    assertThat(engine.getQueueDepth()).isEqualTo(1);
+    assertThat(engine.getInFlight()).isEqualTo(1);
+  }
+
+  @Test
+  void runsOnCallerWhenQueueIsFull() throws InterruptedException {
+    engine = new VerificationEngine(1, 1, VerificationEngine.OverflowPolicy.CALLER_RUNS, 5);
+    fillWorkerAndQueue();
+    Thread caller = Thread.currentThread();
+    Thread[] runner = new Thread[1];
+
+    engine.submit(() -> runner[0] = Thread.currentThread());
+
+    assertThat(runner[0]).isSameAs(caller);
+  }
+
+  @Test
+  void drainsQueueOnShutdown() throws InterruptedException {
+    engine = new VerificationEngine(1, 10, VerificationEngine.OverflowPolicy.REJECT, 5);
+    CountDownLatch done = new CountDownLatch(3);
+    for (int i = 0; i < 3; i++) {
+      engine.submit(done::countDown);
+    }
+
+    engine.shutdown();
+
+    assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private void fillWorkerAndQueue() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    engine.submit(() -> {
+      started.countDown();
+      await(release);
+    });
+    started.await(5, TimeUnit.SECONDS);
+    engine.submit(() -> await(release));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import com.example.demo.data.StatusRequest;
+import com.example.demo.data.StatusResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process part of handing an order over for verification: queueing it on the
+ * {@link VerificationEngine} and answering a repeated status request from the {@link StatusClient} cache.
+ * The outbox write and the HTTP call need a database and a status service and are left to the load test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VerificationHandOffBenchmark {
+
+  @Param({"4"})
+  int workers;
+
+  private VerificationEngine engine;
+  private TtlCache<StatusClient.StatusKey, StatusResponse> statusCache;
+  private StatusRequest statusRequest;
+  private CompletableFuture<StatusResponse> cachedResponse;
+
+  @Setup
+  public void setup() {
+    engine = new VerificationEngine(workers, 1000, VerificationEngine.OverflowPolicy.CALLER_RUNS, 5);
+    statusCache = new TtlCache<>(10000, 60, TimeUnit.SECONDS);
+    statusRequest = new StatusRequest().setClient("client").setPrice(new BigDecimal("100.00"));
+    cachedResponse = CompletableFuture.completedFuture(new StatusResponse().setStatus("accepted"));
+    statusCache.getOrLoad(StatusClient.StatusKey.of(statusRequest), key -> cachedResponse).join();
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    engine.shutdown();
+  }
+
+  //submit and wait until a worker has picked the task up and its stage completed
+  @Benchmark
+  @Threads(4)
+  public Object engineHandOff() throws ExecutionException, InterruptedException {
+    CompletableFuture<Object> done = new CompletableFuture<>();
+    engine.submitAsync(() -> {
+      done.complete(Boolean.TRUE);
+      return done;
+    });
+    return done.get();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public StatusResponse statusCacheHit() {
+    StatusRequest request = new StatusRequest().setClient(statusRequest.getClient()).setPrice(statusRequest.getPrice());
+    return statusCache.getOrLoad(StatusClient.StatusKey.of(request), key -> cachedResponse).join();
+  }
+
+}
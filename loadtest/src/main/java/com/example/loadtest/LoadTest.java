@@ -0,0 +1,123 @@
+package com.example.loadtest;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the demo app against the configured database and a simulated status service,
+ * drives order traffic at it and reports throughput, latency percentiles and time to verified.
+ *
+ * <pre>mvn -f loadtest/pom.xml exec:java -Dexec.args="--rps=200 --duration-seconds=120 --status-latency=uniform:20:300"</pre>
+ */
+@Slf4j
+public class LoadTest {
+
+  public static void main(String[] args) throws Exception {
+    LoadTestSettings settings = LoadTestSettings.parse(args);
+    Report report;
+    try (StatusStub statusStub = new StatusStub(settings.getStatusPort(), settings.getStatusLatency());
+         ConfigurableApplicationContext app = startApp(settings, statusStub)) {
+      String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+      ObjectMapper objectMapper = app.getBean(ObjectMapper.class);
+
+      try (VerificationTracker verificationTracker = new VerificationTracker(app.getBean(OrderRepository.class));
+           OrderTraffic traffic = new OrderTraffic(baseUrl, settings, objectMapper, verificationTracker)) {
+        traffic.seed();
+        traffic.run();
+        if (!verificationTracker.awaitVerified(settings.getVerifyTimeoutSeconds(), TimeUnit.SECONDS)) {
+          log.warn("{} orders still not verified after {}s", verificationTracker.getPendingCount(), settings.getVerifyTimeoutSeconds());
+        }
+        report = Report.of(settings, traffic, verificationTracker);
+      }
+    }
+
+    report.print();
+    if (settings.getReportFile() != null) {
+      new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(settings.getReportFile()), report);
+    }
+    System.exit(0);
+  }
+
+  //defaults only, anything passed on the command line wins
+  private static ConfigurableApplicationContext startApp(LoadTestSettings settings, StatusStub statusStub) {
+    return new SpringApplicationBuilder(DemoApplication.class)
+            .properties(
+                    "server.port=0",
+                    "status.url=" + statusStub.getUrl(),
+                    "spring.jpa.show-sql=false",
+                    "verification.max-delay-seconds=0")
+            .run(settings.getApplicationArgs().toArray(new String[0]));
+  }
+
+  @Data
+  @Accessors(chain = true)
+  public static class Report {
+    private LoadTestSettings settings;
+    private double seconds;
+    private double throughput;
+    private Map<OrderTraffic.Operation, Latency> requests = new LinkedHashMap<>();
+    private Latency timeToVerified;
+    private int unverified;
+
+    static Report of(LoadTestSettings settings, OrderTraffic traffic, VerificationTracker verificationTracker) {
+      Report report = new Report().setSettings(settings).setSeconds(traffic.getRecordedSeconds());
+      long completed = 0;
+      for (OrderTraffic.Operation operation : OrderTraffic.Operation.values()) {
+        Histogram histogram = traffic.getLatency(operation);
+        completed += histogram.getTotalCount();
+        report.requests.put(operation, Latency.of(histogram, 1000.0).setErrors(traffic.getErrors(operation)));
+      }
+      return report
+              .setThroughput(completed / report.seconds)
+              .setTimeToVerified(Latency.of(verificationTracker.getTimeToVerified(), 1.0))
+              .setUnverified(verificationTracker.getPendingCount());
+    }
+
+    void print() {
+      System.out.printf("%nrecorded %.0fs, %.1f successful requests/s (target %d/s)%n%n", seconds, throughput, settings.getRps());
+      System.out.printf("%-18s %8s %7s %9s %9s %9s %9s%n", "", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms");
+      requests.forEach((operation, latency) -> latency.print(operation.name()));
+      timeToVerified.print("time to verified");
+      System.out.printf("%norders not verified in time: %d (time to verified has a %d ms resolution)%n",
+              unverified, VerificationTracker.POLL_INTERVAL_MILLIS);
+    }
+  }
+
+  @Data
+  @Accessors(chain = true)
+  public static class Latency {
+    private long count;
+    private long errors;
+    private double p50;
+    private double p90;
+    private double p99;
+    private double max;
+
+    static Latency of(Histogram histogram, double unitsPerMilli) {
+      return new Latency()
+              .setCount(histogram.getTotalCount())
+              .setP50(histogram.getValueAtPercentile(50) / unitsPerMilli)
+              .setP90(histogram.getValueAtPercentile(90) / unitsPerMilli)
+              .setP99(histogram.getValueAtPercentile(99) / unitsPerMilli)
+              .setMax(histogram.getMaxValue() / unitsPerMilli);
+    }
+
+    void print(String name) {
+      System.out.printf("%-18s %8d %7d %9.1f %9.1f %9.1f %9.1f%n", name, count, errors, p50, p90, p99, max);
+    }
+  }
+
+}
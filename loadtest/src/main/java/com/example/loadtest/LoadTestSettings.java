@@ -0,0 +1,68 @@
+package com.example.loadtest;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Options of a load test run, given as {@code --name=value}. Anything not recognised here
+ * is passed on to the demo application, e.g. {@code --spring.datasource.url=...}.
+ */
+@Data
+@Accessors(chain = true)
+public class LoadTestSettings {
+
+  //requests started per second, independent of how fast the app answers
+  private int rps = 100;
+  private int durationSeconds = 60;
+  //traffic before this is sent but not recorded
+  private int warmupSeconds = 10;
+  private int getWeight = 60;
+  private int postWeight = 30;
+  private int putWeight = 10;
+  //orders created before the run so GET and PUT have something to hit
+  private int seedOrders = 100;
+  //fixed:<ms>, uniform:<lower ms>:<upper ms> or lognormal:<median ms>:<sigma>
+  private String statusLatency = "lognormal:50:0.5";
+  private int statusPort = 0;
+  //how long to wait for orders created during the run to get verified
+  private int verifyTimeoutSeconds = 60;
+  private String reportFile;
+  private List<String> applicationArgs = new ArrayList<>();
+
+  public static LoadTestSettings parse(String[] args) {
+    LoadTestSettings settings = new LoadTestSettings();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        settings.applicationArgs.add(arg);
+        continue;
+      }
+      String value = arg.substring(separator + 1);
+      switch (arg.substring(2, separator)) {
+        case "rps": settings.rps = Integer.parseInt(value); break;
+        case "duration-seconds": settings.durationSeconds = Integer.parseInt(value); break;
+        case "warmup-seconds": settings.warmupSeconds = Integer.parseInt(value); break;
+        case "get-weight": settings.getWeight = Integer.parseInt(value); break;
+        case "post-weight": settings.postWeight = Integer.parseInt(value); break;
+        case "put-weight": settings.putWeight = Integer.parseInt(value); break;
+        case "seed-orders": settings.seedOrders = Integer.parseInt(value); break;
+        case "status-latency": settings.statusLatency = value; break;
+        case "status-port": settings.statusPort = Integer.parseInt(value); break;
+        case "verify-timeout-seconds": settings.verifyTimeoutSeconds = Integer.parseInt(value); break;
+        case "report-file": settings.reportFile = value; break;
+        default: settings.applicationArgs.add(arg);
+      }
+    }
+    if (settings.rps < 1 || settings.getWeight + settings.postWeight + settings.putWeight < 1) {
+      throw new IllegalArgumentException("rps and at least one traffic weight must be positive");
+    }
+    if (settings.seedOrders < 1 && settings.getWeight + settings.putWeight > 0) {
+      throw new IllegalArgumentException("GET and PUT traffic needs at least one seed order");
+    }
+    return settings;
+  }
+
+}
@@ -0,0 +1,212 @@
+package com.example.loadtest;
+
+import com.example.demo.data.Orders;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends a GET/POST/PUT mix at a fixed arrival rate. Requests are started on schedule whether or not
+ * earlier ones have answered, and latency is taken from the scheduled start, so a stalled app shows up
+ * as latency instead of as a lower request rate.
+ */
+@Slf4j
+public class OrderTraffic implements AutoCloseable {
+
+  public enum Operation {GET, POST, PUT}
+
+  private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+  private final String orderUrl;
+  private final LoadTestSettings settings;
+  private final ObjectMapper objectMapper;
+  private final VerificationTracker verificationTracker;
+  private final ExecutorService responseExecutor = Executors.newCachedThreadPool();
+  private final HttpClient httpClient;
+
+  private final List<Long> knownIds = Collections.synchronizedList(new ArrayList<>());
+  private final List<Orders> seededOrders = new ArrayList<>();
+  private final AtomicLong orderNumber = new AtomicLong();
+
+  private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+  private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+  private final AtomicLong outstanding = new AtomicLong();
+  private long recordedNanos;
+
+  public OrderTraffic(String baseUrl, LoadTestSettings settings, ObjectMapper objectMapper,
+                      VerificationTracker verificationTracker) {
+    this.orderUrl = baseUrl + "/order";
+    this.settings = settings;
+    this.objectMapper = objectMapper;
+    this.verificationTracker = verificationTracker;
+    this.httpClient = HttpClient.newBuilder()
+            .executor(responseExecutor)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    for (Operation operation : Operation.values()) {
+      latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+      errors.put(operation, new AtomicLong());
+    }
+  }
+
+  public void seed() throws IOException, InterruptedException {
+    for (int i = 0; i < settings.getSeedOrders(); i++) {
+      HttpResponse<String> response = httpClient.send(post(newOrder()), HttpResponse.BodyHandlers.ofString());
+      if (response.statusCode() != 201) {
+        throw new IllegalStateException("Seeding orders failed with " + response.statusCode() + ": " + response.body());
+      }
+      Orders order = objectMapper.readValue(response.body(), Orders.class);
+      seededOrders.add(order);
+      knownIds.add(order.getId());
+    }
+    log.info("Seeded {} orders", seededOrders.size());
+  }
+
+  public void run() throws InterruptedException {
+    long periodNanos = TimeUnit.SECONDS.toNanos(1) / settings.getRps();
+    long start = System.nanoTime();
+    long recordFrom = start + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+    long end = recordFrom + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+    log.info("Sending {} requests per second for {}s after a {}s warm-up",
+            settings.getRps(), settings.getDurationSeconds(), settings.getWarmupSeconds());
+
+    for (long scheduled = start; scheduled < end; scheduled += periodNanos) {
+      long wait = scheduled - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      send(pickOperation(), scheduled, scheduled >= recordFrom);
+    }
+    recordedNanos = end - recordFrom;
+
+    long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+
+  public Histogram getLatency(Operation operation) {
+    return latencies.get(operation);
+  }
+
+  public long getErrors(Operation operation) {
+    return errors.get(operation).get();
+  }
+
+  public double getRecordedSeconds() {
+    return recordedNanos / 1e9;
+  }
+
+  @Override
+  public void close() {
+    responseExecutor.shutdownNow();
+  }
+
+  private void send(Operation operation, long scheduled, boolean record) {
+    HttpRequest request;
+    try {
+      request = request(operation);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+    outstanding.incrementAndGet();
+    CompletableFuture<HttpResponse<String>> response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    response.whenComplete((result, error) -> {
+      long finished = System.nanoTime();
+      outstanding.decrementAndGet();
+      boolean failed = error != null || result.statusCode() >= 400;
+      if (record) {
+        if (failed) {
+          errors.get(operation).incrementAndGet();
+        } else {
+          latencies.get(operation).recordValue(Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(finished - scheduled)));
+        }
+      }
+      if (!failed && operation == Operation.POST) {
+        created(result.body(), finished, record);
+      }
+    });
+  }
+
+  private void created(String body, long finished, boolean record) {
+    try {
+      Long id = objectMapper.readValue(body, Orders.class).getId();
+      knownIds.add(id);
+      if (record) {
+        verificationTracker.created(id, finished);
+      }
+    } catch (IOException e) {
+      log.warn("Unreadable POST response: {}", e.getMessage());
+    }
+  }
+
+  private HttpRequest request(Operation operation) throws JsonProcessingException {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    switch (operation) {
+      case GET:
+        return HttpRequest.newBuilder(URI.create(orderUrl + "/" + knownIds.get(random.nextInt(knownIds.size())))).GET().build();
+      case PUT:
+        //only seeded orders are updated, so PUTs never race the verification of orders being timed
+        Orders seeded = seededOrders.get(random.nextInt(seededOrders.size()));
+        Orders update = new Orders()
+                .setId(seeded.getId())
+                .setClient(seeded.getClient())
+                .setPrice(seeded.getPrice())
+                .setNumber("LT-UPDATED-" + orderNumber.incrementAndGet());
+        return HttpRequest.newBuilder(URI.create(orderUrl))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(update)))
+                .build();
+      default:
+        return post(newOrder());
+    }
+  }
+
+  private HttpRequest post(Orders order) throws JsonProcessingException {
+    return HttpRequest.newBuilder(URI.create(orderUrl))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(order)))
+            .build();
+  }
+
+  //one in twenty goes to the client the status stubs reject
+  private Orders newOrder() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    boolean rejected = random.nextInt(20) == 0;
+    return new Orders()
+            .setClient(rejected ? "janusz" : "loadtest-" + random.nextInt(100))
+            .setNumber("LT-" + orderNumber.incrementAndGet())
+            .setPrice(rejected ? BigDecimal.valueOf(100) : BigDecimal.valueOf(random.nextInt(1, 100000), 2));
+  }
+
+  private Operation pickOperation() {
+    int draw = ThreadLocalRandom.current().nextInt(settings.getGetWeight() + settings.getPostWeight() + settings.getPutWeight());
+    if (draw < settings.getGetWeight()) {
+      return Operation.GET;
+    }
+    return draw < settings.getGetWeight() + settings.getPostWeight() ? Operation.POST : Operation.PUT;
+  }
+
+}
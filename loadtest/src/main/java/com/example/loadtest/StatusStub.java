@@ -0,0 +1,60 @@
+package com.example.loadtest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.global.GlobalSettings;
+import com.github.tomakehurst.wiremock.http.LogNormal;
+import com.github.tomakehurst.wiremock.http.UniformDistribution;
+
+import java.io.File;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Stand-in for the status service: the stubs from the project {@code mappings} directory,
+ * answered after a delay drawn from the configured distribution. Works when started from the
+ * project root or from the loadtest directory.
+ */
+public class StatusStub implements AutoCloseable {
+
+  private final WireMockServer wireMockServer;
+
+  public StatusStub(int port, String latency) {
+    wireMockServer = new WireMockServer(options()
+            .port(port)
+            .usingFilesUnderDirectory(new File("mappings").isDirectory() ? "." : "..")
+            //delayed responses are scheduled instead of holding a jetty thread each
+            .asynchronousResponseEnabled(true)
+            .asynchronousResponseThreads(50));
+    wireMockServer.start();
+    wireMockServer.updateGlobalSettings(delay(latency));
+  }
+
+  public String getUrl() {
+    return "http://localhost:" + wireMockServer.port() + "/status";
+  }
+
+  @Override
+  public void close() {
+    wireMockServer.stop();
+  }
+
+  static GlobalSettings delay(String latency) {
+    String[] parts = latency.split(":");
+    GlobalSettings settings = new GlobalSettings();
+    switch (parts[0]) {
+      case "fixed":
+        settings.setFixedDelay(Integer.parseInt(parts[1]));
+        break;
+      case "uniform":
+        settings.setDelayDistribution(new UniformDistribution(Integer.parseInt(parts[1]), Integer.parseInt(parts[2])));
+        break;
+      case "lognormal":
+        settings.setDelayDistribution(new LogNormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2])));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown status latency " + latency);
+    }
+    return settings;
+  }
+
+}
@@ -0,0 +1,84 @@
+package com.example.loadtest;
+
+import com.example.demo.data.Orders;
+import com.example.demo.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long orders created during the run wait for their verified status. Polls the
+ * database directly so the measurement neither adds HTTP load nor goes through the order cache.
+ * The resolution is the poll interval.
+ */
+@Slf4j
+public class VerificationTracker implements AutoCloseable {
+
+  static final long POLL_INTERVAL_MILLIS = 50;
+  private static final int POLL_CHUNK = 1000;
+
+  private final OrderRepository orderRepository;
+  private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+  private final Histogram timeToVerified = new Histogram(TimeUnit.HOURS.toMillis(1), 3);
+  private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor();
+
+  public VerificationTracker(OrderRepository orderRepository) {
+    this.orderRepository = orderRepository;
+    poller.scheduleWithFixedDelay(this::poll, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  public void created(Long id, long createdNanos) {
+    pending.put(id, createdNanos);
+  }
+
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  public boolean awaitVerified(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (!pending.isEmpty() && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL_MILLIS);
+    }
+    return pending.isEmpty();
+  }
+
+  //copy taken on the poller thread, which is the only writer
+  public Histogram getTimeToVerified() {
+    try {
+      return poller.submit(timeToVerified::copy).get();
+    } catch (Exception e) {
+      throw new IllegalStateException("Could not read time to verified", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    poller.shutdownNow();
+  }
+
+  private void poll() {
+    try {
+      List<Long> ids = new ArrayList<>(pending.keySet());
+      for (int from = 0; from < ids.size(); from += POLL_CHUNK) {
+        long now = System.nanoTime();
+        for (Orders order : orderRepository.findAllById(ids.subList(from, Math.min(ids.size(), from + POLL_CHUNK)))) {
+          if (!"not verified".equals(order.getStatus())) {
+            Long createdNanos = pending.remove(order.getId());
+            timeToVerified.recordValue(TimeUnit.NANOSECONDS.toMillis(now - createdNanos));
+          }
+        }
+      }
+    } catch (RuntimeException e) {
+      log.warn("Polling verified orders failed: {}", e.getMessage());
+    }
+  }
+
+}
@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+# Runs the status service on the servlet and the reactive runtime with the same heap and the same
+# hey load, and prints a markdown table of throughput, p99 and memory for the readme.
+# Usage: status/compare-runtimes.sh [seconds] [concurrency]
+set -euo pipefail
+
+DURATION=${1:-60}
+CONCURRENCY=${2:-200}
+HEAP=${HEAP:-256m}
+URL=http://localhost:8282
+cd "$(dirname "$0")"
+
+command -v hey >/dev/null || { echo "hey is required: https://github.com/rakyll/hey" >&2; exit 1; }
+mvn -q -B package -DskipTests
+JAR=$(ls target/status-*.jar | head -1)
+
+metric() {
+  # sum of all series of the metric, e.g. heap is reported per pool
+  curl -s "$URL/actuator/prometheus" | awk -v name="$1" -v filter="$2" \
+    'index($0, name) == 1 && (filter == "" || index($0, filter)) { sum += $NF } END { printf "%.0f", sum }'
+}
+
+measure() {
+  local name=$1 profile=$2
+  java -Xmx"$HEAP" -jar "$JAR" --spring.profiles.active="$profile" >"target/$name.log" 2>&1 &
+  local pid=$!
+  until curl -sf "$URL/actuator/health" >/dev/null; do sleep 1; done
+
+  hey -z "${DURATION}s" -c "$CONCURRENCY" -m POST -T application/json \
+    -d '{"client":"client","price":100}' "$URL/status" >"target/$name.hey" &
+  local load=$!
+  # sample memory and threads under load, three quarters into the run
+  sleep $((DURATION * 3 / 4))
+  local heap threads rss
+  heap=$(metric jvm_memory_used_bytes 'area="heap"')
+  threads=$(metric jvm_threads_live_threads '')
+  rss=$(metric process_resident_memory_bytes '')
+  wait $load
+  kill $pid
+  wait $pid || true
+
+  local rps p99
+  rps=$(awk '/Requests\/sec/ { printf "%.0f", $2 }' "target/$name.hey")
+  p99=$(awk '/ 99% in / { printf "%.1f", $3 * 1000 }' "target/$name.hey")
+  printf '| %s | %s | %s ms | %d MB | %s | %s |\n' "$name" "$rps" "$p99" $((heap / 1048576)) "$threads" \
+    "$([ "${rss:-0}" -gt 0 ] && echo "$((rss / 1048576)) MB" || echo n/a)"
+}
+
+echo "Machine: $(nproc) cpus, $(awk '/model name/ { $1=$2=$3=""; print; exit }' /proc/cpuinfo | xargs)," \
+  "$(awk '/MemTotal/ { printf "%d GB", $2 / 1048576 }' /proc/meminfo), $(java -version 2>&1 | head -1)"
+echo "Load: hey -z ${DURATION}s -c $CONCURRENCY, heap -Xmx$HEAP"
+echo
+echo "| runtime | requests/sec | p99 | heap used | live threads | RSS |"
+echo "|---|---|---|---|---|---|"
+measure servlet default
+measure reactive reactive
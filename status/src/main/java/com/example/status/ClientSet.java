@@ -0,0 +1,84 @@
+package com.example.status;
+
+import java.util.Collection;
+
+/**
+ * Read-only, case-insensitive set of client names. Names are lower-cased once when the set is built;
+ * lookups hash and compare the request value char by char, so {@link #contains} does not allocate.
+ */
+final class ClientSet {
+
+  private final String[] table;
+  private final int mask;
+  private final int size;
+
+  private ClientSet(String[] table, int size) {
+    this.table = table;
+    this.mask = table.length - 1;
+    this.size = size;
+  }
+
+  static ClientSet of(Collection<String> clients) {
+    //load factor of at most one half keeps probe chains short
+    int capacity = Integer.highestOneBit(Math.max(2, clients.size() * 2 - 1)) << 1;
+    String[] table = new String[capacity];
+    int size = 0;
+    for (String client : clients) {
+      String normalized = normalize(client);
+      int slot = hash(normalized) & (capacity - 1);
+      while (table[slot] != null && !table[slot].equals(normalized)) {
+        slot = (slot + 1) & (capacity - 1);
+      }
+      if (table[slot] == null) {
+        table[slot] = normalized;
+        size++;
+      }
+    }
+    return new ClientSet(table, size);
+  }
+
+  boolean contains(String client) {
+    if (client == null) {
+      return false;
+    }
+    for (int slot = hash(client) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+      if (matches(table[slot], client)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  int size() {
+    return size;
+  }
+
+  static String normalize(String client) {
+    char[] chars = client.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(chars[i]);
+    }
+    return new String(chars);
+  }
+
+  private static int hash(String value) {
+    int hash = 0;
+    for (int i = 0; i < value.length(); i++) {
+      hash = 31 * hash + Character.toLowerCase(value.charAt(i));
+    }
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean matches(String normalized, String client) {
+    if (normalized.length() != client.length()) {
+      return false;
+    }
+    for (int i = 0; i < normalized.length(); i++) {
+      if (normalized.charAt(i) != Character.toLowerCase(client.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
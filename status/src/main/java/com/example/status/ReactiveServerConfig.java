@@ -0,0 +1,21 @@
+package com.example.status;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * With Tomcat on the classpath Spring Boot would run WebFlux on Tomcat, so the
+ * reactive profile asks for Netty explicitly.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+}
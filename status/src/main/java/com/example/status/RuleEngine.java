@@ -0,0 +1,89 @@
+package com.example.status;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the current {@link RuleSet}. The rule files are checked every {@code status.rules.reload-interval-ms}
+ * and, when one changed, compiled into a new rule set that replaces the old one in a single write,
+ * so a decision always sees one complete rule set. A file that fails to parse keeps the previous rules
+ * until it changes again.
+ */
+@Component
+@Slf4j
+public class RuleEngine {
+
+  private final Resource blockedClients;
+  private final Resource priceRanges;
+
+  private volatile RuleSet rules;
+  private long blockedClientsModified;
+  private long priceRangesModified;
+
+  public RuleEngine(@Value("${status.rules.blocked-clients:classpath:rules/blocked-clients.txt}") Resource blockedClients,
+                    @Value("${status.rules.price-ranges:classpath:rules/price-ranges.csv}") Resource priceRanges) {
+    this.blockedClients = blockedClients;
+    this.priceRanges = priceRanges;
+    this.blockedClientsModified = lastModified(blockedClients);
+    this.priceRangesModified = lastModified(priceRanges);
+    this.rules = load();
+  }
+
+  StatusApplication.StatusResponse decide(StatusApplication.StatusRequest request) {
+    return rules.decide(request);
+  }
+
+  @Scheduled(fixedDelayString = "${status.rules.reload-interval-ms:5000}")
+  public synchronized void reloadIfChanged() {
+    long blockedModified = lastModified(blockedClients);
+    long pricesModified = lastModified(priceRanges);
+    if (blockedModified == blockedClientsModified && pricesModified == priceRangesModified) {
+      return;
+    }
+    //recorded either way, so a broken version is reported once and not on every check
+    blockedClientsModified = blockedModified;
+    priceRangesModified = pricesModified;
+    try {
+      rules = load();
+    } catch (RuntimeException e) {
+      log.error("Rules not reloaded, keeping the previous ones: {}", e.getMessage());
+    }
+  }
+
+  private RuleSet load() {
+    long start = System.nanoTime();
+    RuleSet loaded = RuleSet.parse(readLines(blockedClients), readLines(priceRanges));
+    log.info("Loaded {} blocked clients and {} price ranges in {} ms",
+            loaded.getBlockedClientCount(), loaded.getPriceRangeCount(), (System.nanoTime() - start) / 1_000_000);
+    return loaded;
+  }
+
+  private static List<String> readLines(Resource resource) {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+      return reader.lines().collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read " + resource.getDescription(), e);
+    }
+  }
+
+  //resources inside a jar have no modification time and are never reloaded
+  private static long lastModified(Resource resource) {
+    try {
+      return resource.lastModified();
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+}
@@ -0,0 +1,125 @@
+package com.example.status;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, precompiled status rules: a blocklist of clients that are rejected, then a table of
+ * non-overlapping inclusive price ranges with the status each one maps to, then accepted.
+ * Responses are shared between requests and must not be modified.
+ */
+final class RuleSet {
+
+  private static final StatusApplication.StatusResponse REJECTED = new StatusApplication.StatusResponse().setStatus("rejected");
+  private static final StatusApplication.StatusResponse ACCEPTED = new StatusApplication.StatusResponse().setStatus("accepted");
+  private static final StatusApplication.StatusResponse UNDEFINED = new StatusApplication.StatusResponse().setStatus("undefined");
+
+  private final ClientSet blockedClients;
+  private final BigDecimal[] minPrices;
+  private final BigDecimal[] maxPrices;
+  private final StatusApplication.StatusResponse[] rangeResponses;
+
+  private RuleSet(ClientSet blockedClients, List<PriceRange> ranges) {
+    this.blockedClients = blockedClients;
+    this.minPrices = new BigDecimal[ranges.size()];
+    this.maxPrices = new BigDecimal[ranges.size()];
+    this.rangeResponses = new StatusApplication.StatusResponse[ranges.size()];
+    for (int i = 0; i < ranges.size(); i++) {
+      PriceRange range = ranges.get(i);
+      minPrices[i] = range.min;
+      maxPrices[i] = range.max;
+      rangeResponses[i] = new StatusApplication.StatusResponse().setStatus(range.status);
+    }
+  }
+
+  StatusApplication.StatusResponse decide(StatusApplication.StatusRequest request) {
+    if (blockedClients.contains(request.getClient())) {
+      return REJECTED;
+    }
+    BigDecimal price = request.getPrice();
+    if (price == null) {
+      return UNDEFINED;
+    }
+    int range = floorRange(price);
+    if (range >= 0 && price.compareTo(maxPrices[range]) <= 0) {
+      return rangeResponses[range];
+    }
+    return ACCEPTED;
+  }
+
+  int getBlockedClientCount() {
+    return blockedClients.size();
+  }
+
+  int getPriceRangeCount() {
+    return minPrices.length;
+  }
+
+  /**
+   * @param blockedClients one client per line
+   * @param priceRanges    {@code min,max,status} per line, prices inclusive
+   */
+  static RuleSet parse(List<String> blockedClients, List<String> priceRanges) {
+    List<String> clients = new ArrayList<>(blockedClients.size());
+    for (String line : blockedClients) {
+      String client = line.trim();
+      if (!client.isEmpty() && !client.startsWith("#")) {
+        clients.add(client);
+      }
+    }
+
+    List<PriceRange> ranges = new ArrayList<>();
+    for (String line : priceRanges) {
+      String rule = line.trim();
+      if (rule.isEmpty() || rule.startsWith("#")) {
+        continue;
+      }
+      String[] fields = rule.split(",");
+      if (fields.length != 3) {
+        throw new IllegalArgumentException("Expected min,max,status but got: " + line);
+      }
+      PriceRange range = new PriceRange(new BigDecimal(fields[0].trim()), new BigDecimal(fields[1].trim()), fields[2].trim());
+      if (range.min.compareTo(range.max) > 0) {
+        throw new IllegalArgumentException("Price range min is above max: " + line);
+      }
+      ranges.add(range);
+    }
+    ranges.sort(Comparator.comparing(range -> range.min));
+    for (int i = 1; i < ranges.size(); i++) {
+      if (ranges.get(i).min.compareTo(ranges.get(i - 1).max) <= 0) {
+        throw new IllegalArgumentException("Price ranges overlap at " + ranges.get(i).min);
+      }
+    }
+    return new RuleSet(ClientSet.of(clients), ranges);
+  }
+
+  //index of the last range starting at or below the price, -1 if none
+  private int floorRange(BigDecimal price) {
+    int low = 0;
+    int high = minPrices.length - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (minPrices[middle].compareTo(price) <= 0) {
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return high;
+  }
+
+  private static final class PriceRange {
+    private final BigDecimal min;
+    private final BigDecimal max;
+    private final String status;
+
+    private PriceRange(BigDecimal min, BigDecimal max, String status) {
+      this.min = min;
+      this.max = max;
+      this.status = status;
+    }
+  }
+
+}
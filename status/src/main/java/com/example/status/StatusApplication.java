@@ -1,24 +1,38 @@
 package com.example.status;
 
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @SpringBootApplication
+@EnableScheduling
 @Slf4j
-@RestController("/status")
+@RestController
+@RequestMapping("/status")
 public class StatusApplication {
 
+  private final MeterRegistry meterRegistry;
+  private final RuleEngine ruleEngine;
+
+  public StatusApplication(MeterRegistry meterRegistry, RuleEngine ruleEngine) {
+    this.meterRegistry = meterRegistry;
+    this.ruleEngine = ruleEngine;
+  }
+
   public static void main(String[] args) {
     SpringApplication.run(StatusApplication.class, args);
   }
@@ -26,17 +40,22 @@ public class StatusApplication {
   @RequestMapping(method = RequestMethod.POST)
   public StatusResponse verify(@RequestBody StatusRequest statusRequest) {
     log.info("verifying request {}", statusRequest);
-    if (statusRequest.client.equalsIgnoreCase("janusz")) {
-      return new StatusResponse().setStatus("rejected");
-    }
-    else if(statusRequest.price.compareTo(BigDecimal.ZERO)==0) {
-      return new StatusResponse().setStatus("undefined");
-    }
-    else {
-      return new StatusResponse().setStatus("accepted");
-    }
+    return count(ruleEngine.decide(statusRequest));
   }
 
+  @RequestMapping(path = "/batch", method = RequestMethod.POST)
+  public List<StatusResponse> verifyBatch(@RequestBody List<StatusRequest> statusRequests) {
+    log.info("verifying batch of {} requests", statusRequests.size());
+    return statusRequests.stream()
+            .map(ruleEngine::decide)
+            .map(this::count)
+            .collect(Collectors.toList());
+  }
+
+  private StatusResponse count(StatusResponse response) {
+    meterRegistry.counter("status.decisions", "status", response.getStatus()).increment();
+    return response;
+  }
 
   @Data
   @NoArgsConstructor
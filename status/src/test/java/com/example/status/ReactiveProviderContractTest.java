@@ -0,0 +1,64 @@
+package com.example.status;
+
+import au.com.dius.pact.provider.junit.Provider;
+import au.com.dius.pact.provider.junit.State;
+import au.com.dius.pact.provider.junit.loader.PactBroker;
+import au.com.dius.pact.provider.junit5.HttpTestTarget;
+import au.com.dius.pact.provider.junit5.PactVerificationContext;
+import au.com.dius.pact.provider.junit5.PactVerificationInvocationContextProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestTemplate;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@Provider("StatusVerifier")
+@ExtendWith(SpringExtension.class)
+@PactBroker(host = "localhost", port = "9292")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactiveProviderContractTest {
+
+  @LocalServerPort
+  private int port;
+
+  private static final String PUBLISH_RESULTS = "pact.verifier.publishResults";
+
+  private static String publishResults;
+
+  @BeforeAll
+  static void disablePublishing() {
+    //results of the servlet run are the ones published to the broker
+    publishResults = System.setProperty(PUBLISH_RESULTS, "false");
+  }
+
+  @AfterAll
+  static void restorePublishing() {
+    //tests share the JVM, later ones must see the property as it was
+    if (publishResults == null) {
+      System.clearProperty(PUBLISH_RESULTS);
+    } else {
+      System.setProperty(PUBLISH_RESULTS, publishResults);
+    }
+  }
+
+  @BeforeEach
+  void before(PactVerificationContext context) {
+    context.setTarget(new HttpTestTarget("localhost", port));
+  }
+
+  @TestTemplate
+  @ExtendWith(PactVerificationInvocationContextProvider.class)
+  void pactVerificationTestTemplate(PactVerificationContext context) {
+    context.verifyInteraction();
+  }
+
+  @State("accepted state")
+  void state(){
+  }
+
+}
@@ -0,0 +1,45 @@
+package com.example.status;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleSetTest {
+
+  private final RuleSet rules = RuleSet.parse(
+          Arrays.asList("# blocked", "janusz", " Kowalski ", ""),
+          Arrays.asList("0,0,undefined", "10000.01,99999999,review", "# comment"));
+
+  @Test
+  void rejectsBlockedClientsIgnoringCase() {
+    assertThat(decide("JANUSZ", "100")).isEqualTo("rejected");
+    assertThat(decide("KOWALSKI", "100")).isEqualTo("rejected");
+    assertThat(decide("januszek", "100")).isEqualTo("accepted");
+    assertThat(decide(null, "100")).isEqualTo("accepted");
+  }
+
+  @Test
+  void mapsPricesThroughRangeTable() {
+    assertThat(decide("client", "0.00")).isEqualTo("undefined");
+    assertThat(decide("client", "0.01")).isEqualTo("accepted");
+    assertThat(decide("client", "10000.00")).isEqualTo("accepted");
+    assertThat(decide("client", "10000.01")).isEqualTo("review");
+    assertThat(decide("client", "100000000")).isEqualTo("accepted");
+  }
+
+  @Test
+  void rejectsOverlappingRanges() {
+    assertThatThrownBy(() -> RuleSet.parse(Collections.emptyList(), Arrays.asList("0,10,a", "10,20,b")))
+            .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private String decide(String client, String price) {
+    return rules.decide(new StatusApplication.StatusRequest().setClient(client).setPrice(new BigDecimal(price))).getStatus();
+  }
+
+}
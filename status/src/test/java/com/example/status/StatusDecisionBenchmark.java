@@ -0,0 +1,81 @@
+package com.example.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rule evaluation and request/response (de)serialization of {@code POST /status}, without the servlet stack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatusDecisionBenchmark {
+
+  //blocklist size, lookups should not slow down as it grows
+  @Param({"1", "200000"})
+  int blockedClients;
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+  private RuleSet rules;
+
+  private StatusApplication.StatusRequest accepted;
+  private StatusApplication.StatusRequest rejected;
+  private StatusApplication.StatusRequest undefined;
+  private byte[] requestJson;
+  private StatusApplication.StatusResponse response;
+
+  @Setup
+  public void setup() throws IOException {
+    List<String> clients = new ArrayList<>(blockedClients);
+    clients.add("janusz");
+    for (int i = 1; i < blockedClients; i++) {
+      clients.add("Blocked-Client-" + i);
+    }
+    rules = RuleSet.parse(clients, Collections.singletonList("0,0,undefined"));
+    accepted = new StatusApplication.StatusRequest().setClient("client").setPrice(new BigDecimal("100.00"));
+    rejected = new StatusApplication.StatusRequest().setClient("Janusz").setPrice(new BigDecimal("100.00"));
+    undefined = new StatusApplication.StatusRequest().setClient("client").setPrice(new BigDecimal("0.00"));
+    requestJson = objectMapper.writeValueAsBytes(accepted);
+    response = new StatusApplication.StatusResponse().setStatus("accepted");
+  }
+
+  @Benchmark
+  public StatusApplication.StatusResponse decideAccepted() {
+    return rules.decide(accepted);
+  }
+
+  @Benchmark
+  public StatusApplication.StatusResponse decideRejected() {
+    return rules.decide(rejected);
+  }
+
+  @Benchmark
+  public StatusApplication.StatusResponse decideUndefined() {
+    return rules.decide(undefined);
+  }
+
+  //what the endpoint does per request: read the body, decide, write the response
+  @Benchmark
+  public byte[] roundTrip() throws IOException {
+    StatusApplication.StatusRequest request = objectMapper.readValue(requestJson, StatusApplication.StatusRequest.class);
+    return objectMapper.writeValueAsBytes(rules.decide(request));
+  }
+
+  @Benchmark
+  public byte[] writeResponse() throws IOException {
+    return objectMapper.writeValueAsBytes(response);
+  }
+
+}
@@ -0,0 +1,81 @@
+package com.example.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WireFormatTest {
+
+  private static final String CBOR = "application/cbor";
+
+  private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+  @LocalServerPort
+  private int port;
+
+  @Test
+  void verifiesCborRequests() throws IOException {
+    byte[] request = cborMapper.writeValueAsBytes(
+            new StatusApplication.StatusRequest().setClient("janusz").setPrice(new BigDecimal("100.50")));
+
+    byte[] response = given()
+            .port(port)
+            .contentType(CBOR)
+            .accept(CBOR)
+            .body(request)
+            .post("/status")
+            .then()
+            .statusCode(200)
+            .contentType(CBOR)
+            .extract().asByteArray();
+
+    assertThat(cborMapper.readValue(response, StatusApplication.StatusResponse.class).getStatus()).isEqualTo("rejected");
+  }
+
+  @Test
+  void verifiesCborBatches() throws IOException {
+    byte[] request = cborMapper.writeValueAsBytes(List.of(
+            new StatusApplication.StatusRequest().setClient("client").setPrice(BigDecimal.TEN),
+            new StatusApplication.StatusRequest().setClient("client").setPrice(BigDecimal.ZERO)));
+
+    byte[] response = given()
+            .port(port)
+            .contentType(CBOR)
+            .accept(CBOR)
+            .body(request)
+            .post("/status/batch")
+            .then()
+            .statusCode(200)
+            .extract().asByteArray();
+
+    assertThat(cborMapper.readValue(response, StatusApplication.StatusResponse[].class))
+            .extracting(StatusApplication.StatusResponse::getStatus)
+            .containsExactly("accepted", "undefined");
+  }
+
+  @Test
+  void answersJsonByDefault() {
+    given()
+            .port(port)
+            .contentType("application/json")
+            .body("{\"client\":\"client\",\"price\":100}")
+            .post("/status")
+            .then()
+            .statusCode(200)
+            .contentType("application/json");
+  }
+
+}